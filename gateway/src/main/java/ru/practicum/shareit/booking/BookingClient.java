@@ -1,33 +1,54 @@
 package ru.practicum.shareit.booking;
 
+import org.apache.http.client.HttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
-import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientGuard;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.StreamingClient;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
-public class BookingClient extends BaseClient {
+public class BookingClient extends ReactiveBaseClient {
     private static final String API_PREFIX = "/bookings";
 
+    private final StreamingClient streaming;
+
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                         ClientHttpConnector shareItServerConnector,
+                         @Qualifier("bookingClientGuard") ClientGuard guard, RestTemplateBuilder restBuilder,
+                         HttpClient shareItServerHttpClient) {
         super(
                 builder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(shareItServerConnector)
+                        .build(),
+                guard
+        );
+        streaming = new StreamingClient(
+                restBuilder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(shareItServerHttpClient))
+                        .build(),
+                guard
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getBookings(long userId, BookingState state, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -36,24 +57,32 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", userId, parameters);
     }
 
+    public Mono<ResponseEntity<Object>> getBookings(long userId, BookingState state, String after, Integer size) {
+        return get("?state={state}&after={after}&size={size}", userId, cursorParameters(state, after, size));
+    }
 
-    public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
+
+    public Mono<ResponseEntity<Object>> bookItem(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> bookItems(long userId, List<BookItemRequestDto> requestDtos) {
+        return post("/batch", userId, requestDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
 
     }
 
-    public ResponseEntity<Object> approve(Long bookingId, Long ownerId, boolean approved) {
+    public Mono<ResponseEntity<Object>> approve(Long bookingId, Long ownerId, boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
         return patch("/" + bookingId + "?approved={approved}", ownerId, parameters);
     }
 
-    public ResponseEntity<Object> ownerItemsBookingLists(Long userId, BookingState state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> ownerItemsBookingLists(Long userId, BookingState state, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
@@ -61,4 +90,25 @@ public class BookingClient extends BaseClient {
         );
         return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
     }
+
+    public Mono<ResponseEntity<Object>> ownerItemsBookingLists(Long userId, BookingState state, String after, Integer size) {
+        return get("/owner?state={state}&after={after}&size={size}", userId, cursorParameters(state, after, size));
+    }
+
+    // экспорт отдаётся потоком через блокирующий клиент, см. StreamingClient
+    public ResponseEntity<Object> exportBookings(long userId, BookingState state) {
+        return streaming.getStream("/export?state={state}", userId, Map.of("state", state.name()));
+    }
+
+    public ResponseEntity<Object> exportOwnerBookings(long userId, BookingState state) {
+        return streaming.getStream("/owner/export?state={state}", userId, Map.of("state", state.name()));
+    }
+
+    private static Map<String, Object> cursorParameters(BookingState state, String after, Integer size) {
+        return Map.of(
+                "state", state.name(),
+                "after", after,
+                "size", size
+        );
+    }
 }
@@ -6,13 +6,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.exceptions.model.BadRequestException;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -20,49 +24,87 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @Validated
 public class BookingController {
+    private static final int MAX_BATCH = 1000;
+
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
-                                              @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                    @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                    @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                    @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                    @RequestParam(required = false) String after) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new BadRequestException("Unknown state: " + stateParam));
+        if (after != null) {
+            log.info("Get booking with state {}, userId={}, after={}, size={}", stateParam, userId, after, size);
+            return bookingClient.getBookings(userId, state, after, size);
+        }
         log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
         return bookingClient.getBookings(userId, state, from, size);
     }
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @RequestBody @Valid BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestBody @Valid BookItemRequestDto requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
         return bookingClient.bookItem(userId, requestDto);
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> bookItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  @RequestBody @NotEmpty @Size(max = MAX_BATCH)
+                                                  List<@Valid BookItemRequestDto> requestDtos) {
+        log.info("Creating {} bookings in batch, userId={}", requestDtos.size(), userId);
+        return bookingClient.bookItems(userId, requestDtos);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> updateBooking(@PathVariable Long bookingId,
-                                                @RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                                @RequestParam(name = "approved") boolean approved) {
+    public Mono<ResponseEntity<Object>> updateBooking(@PathVariable Long bookingId,
+                                                      @RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                      @RequestParam(name = "approved") boolean approved) {
         log.info("patch approved userId={} bookingId={}", ownerId, bookingId);
         return bookingClient.approve(bookingId, ownerId, approved);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllBookingsByOwner(@RequestParam(defaultValue = "ALL") String state,
-                                                        @RequestHeader("X-Sharer-User-Id") Long userId,
-                                                        @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                        @Positive @RequestParam(defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> getAllBookingsByOwner(@RequestParam(defaultValue = "ALL") String state,
+                                                              @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                              @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                              @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                              @RequestParam(required = false) String after) {
         BookingState stateParam = BookingState.from(state)
                 .orElseThrow(() -> new BadRequestException("Unknown state: " + state));
+        if (after != null) {
+            log.info("Get owner bookings with state {}, userId={}, after={}, size={}", state, userId, after, size);
+            return bookingClient.ownerItemsBookingLists(userId, stateParam, after, size);
+        }
         log.info("Get booking with state {}, userId={}, from={}, size={}", state, userId, from, size);
         return bookingClient.ownerItemsBookingLists(userId, stateParam, from, size);
     }
+
+    @GetMapping("/export")
+    public ResponseEntity<Object> exportBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestParam(name = "state", defaultValue = "all") String stateParam) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new BadRequestException("Unknown state: " + stateParam));
+        log.info("Export bookings with state {}, userId={}", stateParam, userId);
+        return bookingClient.exportBookings(userId, state);
+    }
+
+    @GetMapping("/owner/export")
+    public ResponseEntity<Object> exportOwnerBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @RequestParam(name = "state", defaultValue = "all") String stateParam) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new BadRequestException("Unknown state: " + stateParam));
+        log.info("Export owner bookings with state {}, userId={}", stateParam, userId);
+        return bookingClient.exportOwnerBookings(userId, state);
+    }
 }
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+// Общая часть BaseClient и ReactiveBaseClient: набор методов клиентов и заголовки запроса и ответа.
+// R - результат вызова: ResponseEntity у блокирующего клиента и Mono с ним у неблокирующего.
+public abstract class AbstractProxyClient<R> {
+    // заголовки одного соединения; шлюз отвечает клиенту своим соединением и сам выбирает кодирование
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(HttpHeaders.CONNECTION, "Keep-Alive",
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.UPGRADE, HttpHeaders.PROXY_AUTHENTICATE,
+            HttpHeaders.TRAILER, HttpHeaders.TE);
+
+    protected R get(String path) {
+        return get(path, null, null);
+    }
+
+    protected R get(String path, long userId) {
+        return get(path, userId, null);
+    }
+
+    protected R get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    }
+
+    protected <T> R post(String path, T body) {
+        return post(path, null, null, body);
+    }
+
+    protected <T> R post(String path, long userId, T body) {
+        return post(path, userId, null, body);
+    }
+
+    protected <T> R post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+    }
+
+    protected <T> R put(String path, long userId, T body) {
+        return put(path, userId, null, body);
+    }
+
+    protected <T> R put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
+    }
+
+    protected <T> R patch(String path, T body) {
+        return patch(path, null, null, body);
+    }
+
+    protected <T> R patch(String path, long userId) {
+        return patch(path, userId, null, null);
+    }
+
+    protected <T> R patch(String path, long userId, T body) {
+        return patch(path, userId, null, body);
+    }
+
+    protected <T> R patch(String path, long userId, @Nullable Map<String, Object> parameters) {
+        return patch(path, userId, parameters, null);
+    }
+
+    protected <T> R patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    }
+
+    protected R delete(String path) {
+        return delete(path, null, null);
+    }
+
+    protected R delete(String path, long userId) {
+        return delete(path, userId, null);
+    }
+
+    protected R delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+    }
+
+    protected abstract <T> R makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                @Nullable Map<String, Object> parameters, @Nullable T body);
+
+    protected static HttpHeaders defaultHeaders(Long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return headers;
+    }
+
+    // заголовки ответа сервера, которые шлюз передаёт клиенту
+    protected static HttpHeaders gatewayHeaders(HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(serverHeaders);
+        HOP_BY_HOP_HEADERS.forEach(headers::remove);
+        return headers;
+    }
+}
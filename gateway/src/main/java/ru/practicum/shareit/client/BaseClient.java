@@ -1,121 +1,128 @@
 package ru.practicum.shareit.client;
 
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.List;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.Map;
 
-public abstract class BaseClient {
+public abstract class BaseClient extends AbstractProxyClient<ResponseEntity<Object>> {
     protected final RestTemplate rest;
+    private final ClientGuard guard;
 
     public BaseClient(RestTemplate rest) {
-        this.rest = rest;
-    }
-
-    protected ResponseEntity<Object> get(String path) {
-        return get(path, null, null);
-    }
-
-    protected ResponseEntity<Object> get(String path, long userId) {
-        return get(path, userId, null);
-    }
-
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
-    }
-
-    protected <T> ResponseEntity<Object> post(String path, T body) {
-        return post(path, null, null, body);
+        this(rest, ClientGuard.unguarded());
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
-        return post(path, userId, null, body);
-    }
-
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
-    }
-
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
-        return put(path, userId, null, body);
-    }
-
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
-    }
-
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
-        return patch(path, null, null, body);
-    }
-
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
-        return patch(path, userId, null, null);
-    }
-
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
-        return patch(path, userId, null, body);
-    }
-
-    protected <T> ResponseEntity<Object> patch(String path, long userId, @Nullable Map<String, Object> parameters) {
-        return patch(path, userId, parameters, null);
-    }
-
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
-    }
-
-    protected ResponseEntity<Object> delete(String path) {
-        return delete(path, null, null);
+    public BaseClient(RestTemplate rest, ClientGuard guard) {
+        this.rest = rest;
+        this.guard = guard;
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
-        return delete(path, userId, null);
+    // тело копируется в запрос к серверу по мере чтения; без буферизации оно уходит chunked,
+    // если фабрика запросов клиента создана с bufferRequestBody = false
+    protected ResponseEntity<Object> postStream(String path, long userId, MediaType contentType, InputStream body) {
+        return proxy(HttpMethod.POST, path, null, request -> {
+            request.getHeaders().addAll(defaultHeaders(userId));
+            request.getHeaders().setContentType(contentType);
+            StreamUtils.copy(body, request.getBody());
+        });
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+    // ответ из кэша отдаётся много раз, поэтому его тело читается в массив байт
+    protected static ResponseEntity<Object> buffered(ResponseEntity<Object> response) {
+        if (!(response.getBody() instanceof Resource)) {
+            return response;
+        }
+        try (InputStream body = ((Resource) response.getBody()).getInputStream()) {
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(response.getHeaders())
+                    .body(StreamUtils.copyToByteArray(body));
+        } catch (IOException e) {
+            throw new ResourceAccessException("Не удалось прочитать ответ сервера: " + e.getMessage(), e);
+        }
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+    @Override
+    protected <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                            @Nullable Map<String, Object> parameters,
+                                                            @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-
-        ResponseEntity<Object> shareitServerResponse;
+        return proxy(method, path, parameters, rest.httpEntityCallback(requestEntity));
+    }
+
+    // Ответ сервера не разбирается: статус и заголовки переносятся как есть, а тело отдаётся клиенту
+    // потоком через ResourceHttpMessageConverter, который после копирования закрывает его и освобождает
+    // соединение. Ошибки сервера проходят тем же путём, без исключений RestTemplate.
+    private ResponseEntity<Object> proxy(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                         RequestCallback requestCallback) {
+        URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+        // место в ClientGuard занято, пока тело ответа не передано клиенту и соединение не освобождено
+        ClientGuard.Permit permit = guard.acquire();
+        ClientHttpResponse response = null;
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, method);
+            requestCallback.doWithRequest(request);
+            response = request.execute();
+            permit.record(HttpStatus.Series.resolve(response.getRawStatusCode()) == HttpStatus.Series.SERVER_ERROR);
+            return toGatewayResponse(response, permit);
+        } catch (IOException e) {
+            abort(response, permit);
+            throw new ResourceAccessException("I/O error on " + method + " request for \"" + uri + "\": "
+                    + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            abort(response, permit);
+            throw e;
         }
-        return prepareGatewayResponse(shareitServerResponse);
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-        if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+    private static void abort(@Nullable ClientHttpResponse response, ClientGuard.Permit permit) {
+        permit.record(true);
+        permit.release();
+        if (response != null) {
+            response.close();
         }
-        return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static ResponseEntity<Object> toGatewayResponse(ClientHttpResponse response, ClientGuard.Permit permit)
+            throws IOException {
+        HttpHeaders headers = gatewayHeaders(response.getHeaders());
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getRawStatusCode()).headers(headers);
+        if (headers.getContentLength() == 0) {
+            response.close();
+            permit.release();
+            return responseBuilder.build();
         }
+        return responseBuilder.body(new InputStreamResource(new ReleasingInputStream(response, permit)));
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    private static final class ReleasingInputStream extends FilterInputStream {
+        private final ClientHttpResponse response;
+        private final ClientGuard.Permit permit;
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        private ReleasingInputStream(ClientHttpResponse response, ClientGuard.Permit permit) throws IOException {
+            super(response.getBody());
+            this.response = response;
+            this.permit = permit;
         }
 
-        return responseBuilder.build();
+        @Override
+        public void close() {
+            response.close();
+            permit.release();
+        }
     }
 }
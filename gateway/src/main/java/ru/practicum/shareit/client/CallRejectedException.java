@@ -0,0 +1,11 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.web.client.ResourceAccessException;
+
+// Запрос к серверу не отправлялся: исчерпан лимит одновременных запросов клиента или разомкнут
+// размыкатель. Как и недоступный сервер, отдаётся клиенту шлюза как 503.
+public class CallRejectedException extends ResourceAccessException {
+    public CallRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.client;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+// Размыкатель по последним windowSize вызовам: если среди них (но не меньше minimumCalls) доля ошибок
+// или медленных ответов достигает порога, вызовы на openNanos отклоняются сразу. Затем пропускается
+// halfOpenCalls пробных вызовов: все успешны - размыкатель замыкается, любой неудачный - снова размыкается.
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final int slowCallRatePercent;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final BiConsumer<State, State> onTransition;
+
+    private final Lock lock = new ReentrantLock();
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private volatile State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failed;
+    private int slow;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, int slowCallRatePercent,
+                          long slowCallNanos, long openNanos, int halfOpenCalls,
+                          BiConsumer<State, State> onTransition) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallRatePercent = slowCallRatePercent;
+        this.slowCallNanos = slowCallNanos;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.onTransition = onTransition;
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public boolean tryAcquire(long now) {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (now - openedAt < openNanos) {
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSucceeded = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits == 0) {
+                    return false;
+                }
+                halfOpenPermits--;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onResult(long now, long durationNanos, boolean failure) {
+        boolean slowCall = durationNanos >= slowCallNanos;
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                if (failure || slowCall) {
+                    open(now);
+                } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                    resetWindow();
+                    transition(State.CLOSED);
+                }
+            } else if (state == State.CLOSED) {
+                record(failure, slowCall);
+                if (recorded >= minimumCalls && (failed * 100 >= failureRatePercent * recorded
+                        || slow * 100 >= slowCallRatePercent * recorded)) {
+                    open(now);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // вызов отменён и ничего не сообщил о сервере; пробное место возвращается
+    public void onIgnored() {
+        if (state != State.HALF_OPEN) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                halfOpenPermits++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failure, boolean slowCall) {
+        if (recorded == windowSize) {
+            failed -= failedCalls[next] ? 1 : 0;
+            slow -= slowCalls[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failedCalls[next] = failure;
+        slowCalls[next] = slowCall;
+        failed += failure ? 1 : 0;
+        slow += slowCall ? 1 : 0;
+        next = (next + 1) % windowSize;
+    }
+
+    private void open(long now) {
+        openedAt = now;
+        resetWindow();
+        transition(State.OPEN);
+    }
+
+    private void resetWindow() {
+        next = 0;
+        recorded = 0;
+        failed = 0;
+        slow = 0;
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        onTransition.accept(from, to);
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import ru.practicum.shareit.client.ClientGuardProperties.Limits;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+// Изоляция клиента шлюза (booking, item, request, user): Bulkhead ограничивает его одновременные
+// запросы, CircuitBreaker отключает его при ошибках или медленных ответах сервера. Медленный
+// /bookings/owner исчерпывает только свой лимит, и GET /users/{id} продолжает работать.
+// Ошибкой считаются 5xx и сбои соединения; 4xx - нормальный ответ сервера.
+// Метрики с тегом client: shareit.client.in-flight, shareit.client.circuit.state (0 - замкнут,
+// 1 - разомкнут, 2 - пробные вызовы), shareit.client.circuit.transitions (from, to)
+// и shareit.client.rejected (reason = bulkhead | circuit-open).
+public class ClientGuard {
+    private static final ClientGuard UNGUARDED = new ClientGuard();
+
+    private final String name;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final LongSupplier clock;
+    private final Counter rejectedByBulkhead;
+    private final Counter rejectedByCircuit;
+
+    public ClientGuard(String name, Limits limits, MeterRegistry meterRegistry) {
+        this(name, limits, meterRegistry, System::nanoTime);
+    }
+
+    public ClientGuard(String name, Limits limits, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.name = name;
+        this.clock = clock;
+        this.bulkhead = new Bulkhead(limits.getMaxConcurrent());
+        this.circuitBreaker = new CircuitBreaker(limits.getWindowSize(), limits.getMinimumCalls(),
+                limits.getFailureRatePercent(), limits.getSlowCallRatePercent(),
+                TimeUnit.MILLISECONDS.toNanos(limits.getSlowCallMs()), TimeUnit.MILLISECONDS.toNanos(limits.getOpenMs()),
+                limits.getHalfOpenCalls(),
+                (from, to) -> meterRegistry.counter("shareit.client.circuit.transitions",
+                        "client", name, "from", from.name(), "to", to.name()).increment());
+        Gauge.builder("shareit.client.in-flight", bulkhead, Bulkhead::inFlight)
+                .tag("client", name)
+                .register(meterRegistry);
+        Gauge.builder("shareit.client.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .tag("client", name)
+                .register(meterRegistry);
+        this.rejectedByBulkhead = meterRegistry.counter("shareit.client.rejected", "client", name, "reason", "bulkhead");
+        this.rejectedByCircuit = meterRegistry.counter("shareit.client.rejected", "client", name,
+                "reason", "circuit-open");
+    }
+
+    private ClientGuard() {
+        this.name = "unguarded";
+        this.bulkhead = null;
+        this.circuitBreaker = null;
+        this.clock = System::nanoTime;
+        this.rejectedByBulkhead = null;
+        this.rejectedByCircuit = null;
+    }
+
+    // без ограничений: для клиентов, собранных вне контекста Spring
+    public static ClientGuard unguarded() {
+        return UNGUARDED;
+    }
+
+    public CircuitBreaker.State state() {
+        return circuitBreaker == null ? CircuitBreaker.State.CLOSED : circuitBreaker.state();
+    }
+
+    // разрешение на один запрос; если его нет, запрос к серверу не отправляется
+    public Permit acquire() {
+        if (this == UNGUARDED) {
+            return new Permit(clock.getAsLong());
+        }
+        if (!bulkhead.tryAcquire()) {
+            rejectedByBulkhead.increment();
+            throw new CallRejectedException("Превышен лимит одновременных запросов клиента " + name);
+        }
+        long now = clock.getAsLong();
+        if (!circuitBreaker.tryAcquire(now)) {
+            bulkhead.release();
+            rejectedByCircuit.increment();
+            throw new CallRejectedException("Запросы клиента " + name + " временно отключены");
+        }
+        return new Permit(now);
+    }
+
+    // record фиксирует исход запроса, как только известен статус ответа; release освобождает место
+    // в Bulkhead, когда ответ полностью передан. Оба метода срабатывают не больше одного раза.
+    public final class Permit {
+        private final long startedAt;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        public void record(boolean failure) {
+            if (circuitBreaker != null && recorded.compareAndSet(false, true)) {
+                long now = clock.getAsLong();
+                circuitBreaker.onResult(now, now - startedAt, failure);
+            }
+        }
+
+        public void release() {
+            if (bulkhead != null && released.compareAndSet(false, true)) {
+                if (recorded.compareAndSet(false, true)) {
+                    circuitBreaker.onIgnored();
+                }
+                bulkhead.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// По одному ClientGuard на клиента шлюза; неблокирующие и потоковые запросы клиента делят общий лимит
+@Configuration
+@EnableConfigurationProperties(ClientGuardProperties.class)
+public class ClientGuardConfig {
+
+    @Bean
+    public ClientGuard bookingClientGuard(ClientGuardProperties properties, MeterRegistry meterRegistry) {
+        return guard("booking", properties, meterRegistry);
+    }
+
+    @Bean
+    public ClientGuard itemClientGuard(ClientGuardProperties properties, MeterRegistry meterRegistry) {
+        return guard("item", properties, meterRegistry);
+    }
+
+    @Bean
+    public ClientGuard itemRequestClientGuard(ClientGuardProperties properties, MeterRegistry meterRegistry) {
+        return guard("request", properties, meterRegistry);
+    }
+
+    @Bean
+    public ClientGuard userClientGuard(ClientGuardProperties properties, MeterRegistry meterRegistry) {
+        return guard("user", properties, meterRegistry);
+    }
+
+    private static ClientGuard guard(String name, ClientGuardProperties properties, MeterRegistry meterRegistry) {
+        return new ClientGuard(name, properties.forClient(name), meterRegistry);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Лимиты ClientGuard: defaults для всех клиентов и переопределения в clients по имени клиента.
+// Незаданные в clients значения берутся из defaults.
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.guard")
+public class ClientGuardProperties {
+    private Limits defaults = Limits.standard();
+    private Map<String, Limits> clients = new HashMap<>();
+
+    public Limits forClient(String name) {
+        Limits limits = clients.get(name);
+        return limits == null ? defaults : limits.withDefaults(defaults);
+    }
+
+    @Getter
+    @Setter
+    public static class Limits {
+        private Integer maxConcurrent;
+        private Integer windowSize;
+        private Integer minimumCalls;
+        private Integer failureRatePercent;
+        private Integer slowCallRatePercent;
+        private Long slowCallMs;
+        private Long openMs;
+        private Integer halfOpenCalls;
+
+        private static Limits standard() {
+            Limits limits = new Limits();
+            limits.maxConcurrent = 100;
+            limits.windowSize = 50;
+            limits.minimumCalls = 20;
+            limits.failureRatePercent = 50;
+            limits.slowCallRatePercent = 80;
+            limits.slowCallMs = 2_000L;
+            limits.openMs = 10_000L;
+            limits.halfOpenCalls = 5;
+            return limits;
+        }
+
+        private Limits withDefaults(Limits defaults) {
+            Limits merged = new Limits();
+            merged.maxConcurrent = maxConcurrent != null ? maxConcurrent : defaults.maxConcurrent;
+            merged.windowSize = windowSize != null ? windowSize : defaults.windowSize;
+            merged.minimumCalls = minimumCalls != null ? minimumCalls : defaults.minimumCalls;
+            merged.failureRatePercent = failureRatePercent != null ? failureRatePercent : defaults.failureRatePercent;
+            merged.slowCallRatePercent = slowCallRatePercent != null ? slowCallRatePercent : defaults.slowCallRatePercent;
+            merged.slowCallMs = slowCallMs != null ? slowCallMs : defaults.slowCallMs;
+            merged.openMs = openMs != null ? openMs : defaults.openMs;
+            merged.halfOpenCalls = halfOpenCalls != null ? halfOpenCalls : defaults.halfOpenCalls;
+            return merged;
+        }
+    }
+}
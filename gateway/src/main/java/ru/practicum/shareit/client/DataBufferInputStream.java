@@ -0,0 +1,126 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.Cleaner;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Тело ответа WebClient как InputStream: ResourceHttpMessageConverter копирует его клиенту по мере того,
+// как буферы приходят от сервера, и в памяти лежит не больше PREFETCH буферов.
+// Чтение блокирует поток Tomcat на время копирования тела: неблокирующим остаётся только ожидание
+// заголовков ответа. Читать поэтому можно из потока Tomcat, но не из event loop Netty.
+// Тело, которое так и не прочитали (клиент ушёл, истёк таймаут асинхронного запроса, поток закрыт
+// до чтения), отменяется при close или при сборке потока сборщиком мусора: отмена возвращает
+// соединение в пул и разрешение ClientGuard.
+final class DataBufferInputStream extends InputStream {
+    private static final int PREFETCH = 16;
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Body body;
+    private final Cleaner.Cleanable cleanable;
+    private boolean closed;
+
+    DataBufferInputStream(Flux<DataBuffer> body) {
+        this.body = new Body(body);
+        this.cleanable = CLEANER.register(this, this.body);
+    }
+
+    @Override
+    public int read() throws IOException {
+        DataBuffer buffer = current();
+        return buffer == null ? -1 : buffer.read() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        DataBuffer buffer = current();
+        if (buffer == null) {
+            return -1;
+        }
+        int count = Math.min(len, buffer.readableByteCount());
+        buffer.read(bytes, off, count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return body.current == null ? 0 : body.current.readableByteCount();
+    }
+
+    // закрытие до конца тела отменяет чтение ответа, и соединение не ждёт остаток
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        cleanable.clean();
+    }
+
+    private DataBuffer current() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        try {
+            return body.next();
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            throw cause instanceof IOException ? (IOException) cause
+                    : new IOException("Не удалось прочитать ответ сервера: " + cause.getMessage(), cause);
+        }
+    }
+
+    // состояние чтения отдельно от потока: Cleaner не должен ссылаться на сам поток
+    private static final class Body implements Runnable {
+        private final Flux<DataBuffer> flux;
+        private Stream<DataBuffer> buffers;
+        private Iterator<DataBuffer> iterator;
+        private DataBuffer current;
+
+        private Body(Flux<DataBuffer> flux) {
+            this.flux = flux;
+        }
+
+        private DataBuffer next() {
+            while (current == null || current.readableByteCount() == 0) {
+                release();
+                if (iterator == null) {
+                    buffers = flux.toStream(PREFETCH);
+                    iterator = buffers.iterator();
+                }
+                if (!iterator.hasNext()) {
+                    return null;
+                }
+                current = iterator.next();
+            }
+            return current;
+        }
+
+        private void release() {
+            if (current != null) {
+                DataBufferUtils.release(current);
+                current = null;
+            }
+        }
+
+        // тело, на которое ещё не подписывались, отменяется подпиской с немедленной отменой
+        @Override
+        public void run() {
+            release();
+            if (buffers != null) {
+                buffers.close();
+            } else {
+                flux.subscribe(DataBufferUtils::release).dispose();
+            }
+        }
+    }
+}
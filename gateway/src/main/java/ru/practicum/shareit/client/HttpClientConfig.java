@@ -0,0 +1,64 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+// Один блокирующий пул соединений с сервером на потоковые запросы всех клиентов шлюза (StreamingClient);
+// остальные запросы идут через пул Reactor Netty из ReactiveClientConfig. Все они ходят на один адрес, поэтому
+// лимит на маршрут по умолчанию равен общему. Занятые, ожидающие и свободные соединения видны
+// в /actuator/metrics как httpcomponents.httpclient.pool.* с тегом httpclient=shareit-server.
+@Configuration
+public class HttpClientConfig {
+    private static final String POOL_NAME = "shareit-server";
+
+    @Bean
+    public PoolingHttpClientConnectionManager shareItServerConnectionManager(
+            @Value("${shareit-server.pool.max-total:200}") int maxTotal,
+            @Value("${shareit-server.pool.max-per-route:200}") int maxPerRoute,
+            @Value("${shareit-server.pool.validate-after-inactivity-ms:2000}") int validateAfterInactivityMs,
+            MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivityMs);
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    // acquire-timeout ограничивает ожидание свободного соединения: при исчерпанном пуле запрос
+    // падает быстро, а не держит поток шлюза
+    @Bean
+    public CloseableHttpClient shareItServerHttpClient(
+            PoolingHttpClientConnectionManager shareItServerConnectionManager,
+            @Value("${shareit-server.pool.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${shareit-server.pool.read-timeout-ms:30000}") int readTimeoutMs,
+            @Value("${shareit-server.pool.acquire-timeout-ms:1000}") int acquireTimeoutMs,
+            @Value("${shareit-server.pool.keep-alive-ms:30000}") long keepAliveMs,
+            @Value("${shareit-server.pool.evict-idle-after-ms:60000}") long evictIdleAfterMs) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .setConnectionRequestTimeout(acquireTimeoutMs)
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(shareItServerConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long fromServer = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return fromServer > 0 ? Math.min(fromServer, keepAliveMs) : keepAliveMs;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(evictIdleAfterMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Неблокирующий вариант BaseClient на WebClient: тот же набор методов, но результат - Mono,
+// и поток шлюза не ждёт ответа сервера. Тело ответа, как и в BaseClient, не разбирается:
+// статус и заголовки переносятся как есть, а тело идёт клиенту потоком буферов по мере получения.
+// Поток Tomcat свободен только пока сервер не прислал заголовки: тело копируется блокирующим чтением
+// (DataBufferInputStream), и на время его передачи поток снова занят.
+public abstract class ReactiveBaseClient extends AbstractProxyClient<Mono<ResponseEntity<Object>>> {
+    // ответ, прочитанный целиком для кэша, не больше лимита кодеков WebClient по умолчанию
+    private static final int MAX_BUFFERED_BYTES = 256 * 1024;
+
+    protected final WebClient web;
+    private final ClientGuard guard;
+
+    public ReactiveBaseClient(WebClient web) {
+        this(web, ClientGuard.unguarded());
+    }
+
+    public ReactiveBaseClient(WebClient web, ClientGuard guard) {
+        this.web = web;
+        this.guard = guard;
+    }
+
+    // тело читается в массив байт, чтобы ответ можно было отдавать из кэша много раз
+    protected Mono<ResponseEntity<Object>> getBuffered(String path, Long userId,
+                                                       @Nullable Map<String, Object> parameters) {
+        return send(HttpMethod.GET, path, userId, parameters, null, true);
+    }
+
+    @Override
+    protected <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                                  @Nullable Map<String, Object> parameters,
+                                                                  @Nullable T body) {
+        return send(method, path, userId, parameters, body, false);
+    }
+
+    // ошибки сервера (4xx, 5xx) отдаются клиенту как обычный ответ; недоступность сервера и исчерпание
+    // пула приводятся к ResourceAccessException, как в BaseClient, и ErrorHandler отвечает 503
+    private <T> Mono<ResponseEntity<Object>> send(HttpMethod method, String path, Long userId,
+                                                  @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                  boolean buffer) {
+        WebClient.RequestBodySpec request = web.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(defaultHeaders(userId)));
+        WebClient.RequestHeadersSpec<?> withBody = body != null ? request.bodyValue(body) : request;
+        // разрешение ClientGuard берётся при подписке, то есть когда запрос действительно уходит,
+        // и возвращается, когда тело ответа дочитано или чтение отменено;
+        // отказ приходит в Mono ошибкой CallRejectedException
+        return Mono.defer(() -> {
+            ClientGuard.Permit permit = guard.acquire();
+            return withBody.retrieve()
+                    .onRawStatus(status -> true, response -> Mono.empty())
+                    .toEntityFlux(DataBuffer.class)
+                    .flatMap(response -> {
+                        permit.record(HttpStatus.Series.resolve(response.getStatusCodeValue())
+                                == HttpStatus.Series.SERVER_ERROR);
+                        return toGatewayResponse(response, permit, buffer);
+                    })
+                    .doOnError(e -> {
+                        permit.record(true);
+                        permit.release();
+                    })
+                    .doOnCancel(permit::release);
+        }).onErrorMap(WebClientRequestException.class,
+                e -> new ResourceAccessException("I/O error on " + method + " request for \"" + e.getUri()
+                        + "\": " + e.getMessage()));
+    }
+
+    // Spring MVC пишет Flux в ответ только для потоковых типов (SSE, NDJSON), поэтому тело отдаётся
+    // как InputStreamResource поверх Flux: ResourceHttpMessageConverter копирует его, как и в BaseClient
+    private static Mono<ResponseEntity<Object>> toGatewayResponse(ResponseEntity<Flux<DataBuffer>> response,
+                                                                  ClientGuard.Permit permit, boolean buffer) {
+        HttpHeaders headers = gatewayHeaders(response.getHeaders());
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCodeValue())
+                .headers(headers);
+        Flux<DataBuffer> body = response.getBody().doFinally(signal -> permit.release());
+        if (buffer) {
+            return DataBufferUtils.join(body, MAX_BUFFERED_BYTES)
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return responseBuilder.<Object>body(bytes);
+                    })
+                    .defaultIfEmpty(responseBuilder.build());
+        }
+        if (headers.getContentLength() == 0) {
+            return body.map(DataBufferUtils::release)
+                    .then(Mono.just(responseBuilder.build()));
+        }
+        return Mono.just(responseBuilder.<Object>body(new InputStreamResource(new DataBufferInputStream(body))));
+    }
+}
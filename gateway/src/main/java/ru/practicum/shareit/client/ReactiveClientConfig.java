@@ -0,0 +1,49 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+// Пул соединений Reactor Netty для ReactiveBaseClient с теми же лимитами, что и у блокирующего
+// пула в HttpClientConfig. Запросы сверх max-total ждут соединения в очереди, а не в потоке:
+// очередь ограничена max-pending, ожидание - acquire-timeout. Метрики пула публикуются как
+// reactor.netty.connection.provider.* с тегом name=shareit-server.
+@Configuration
+public class ReactiveClientConfig {
+    private static final String POOL_NAME = "shareit-server";
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareItServerConnectionProvider(
+            @Value("${shareit-server.pool.max-total:200}") int maxTotal,
+            @Value("${shareit-server.pool.max-pending:5000}") int maxPending,
+            @Value("${shareit-server.pool.acquire-timeout-ms:1000}") long acquireTimeoutMs,
+            @Value("${shareit-server.pool.keep-alive-ms:30000}") long keepAliveMs,
+            @Value("${shareit-server.pool.evict-idle-after-ms:60000}") long evictIdleAfterMs) {
+        return ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(maxTotal)
+                .pendingAcquireMaxCount(maxPending)
+                .pendingAcquireTimeout(Duration.ofMillis(acquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(keepAliveMs))
+                .evictInBackground(Duration.ofMillis(evictIdleAfterMs))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpConnector shareItServerConnector(
+            ConnectionProvider shareItServerConnectionProvider,
+            @Value("${shareit-server.pool.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${shareit-server.pool.read-timeout-ms:30000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.create(shareItServerConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
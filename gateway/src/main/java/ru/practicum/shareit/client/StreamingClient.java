@@ -0,0 +1,28 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InputStream;
+import java.util.Map;
+
+// Блокирующий клиент для потоковых импорта и экспорта: тело идёт через шлюз потоком
+// в обе стороны, и держать на это время поток дешевле, чем копить его в памяти.
+// Остальные запросы выполняет ReactiveBaseClient.
+public class StreamingClient extends BaseClient {
+
+    public StreamingClient(RestTemplate rest, ClientGuard guard) {
+        super(rest, guard);
+    }
+
+    public ResponseEntity<Object> getStream(String path, long userId, @Nullable Map<String, Object> parameters) {
+        return get(path, userId, parameters);
+    }
+
+    @Override
+    public ResponseEntity<Object> postStream(String path, long userId, MediaType contentType, InputStream body) {
+        return super.postStream(path, userId, contentType, body);
+    }
+}
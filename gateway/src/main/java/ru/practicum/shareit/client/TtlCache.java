@@ -0,0 +1,58 @@
+package ru.practicum.shareit.client;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Небольшой кэш ответов с коротким временем жизни. При переполнении сначала удаляются устаревшие
+// записи, а если их нет - кэш очищается целиком.
+public class TtlCache<K, V> {
+    private final long ttlNanos;
+    private final int maxSize;
+    private final LongSupplier clock;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    public TtlCache(Duration ttl, int maxSize) {
+        this(ttl, maxSize, System::nanoTime);
+    }
+
+    public TtlCache(Duration ttl, int maxSize, LongSupplier clock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.createdAt >= ttlNanos) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        long now = clock.getAsLong();
+        if (entries.size() >= maxSize) {
+            entries.values().removeIf(entry -> now - entry.createdAt >= ttlNanos);
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new Entry<>(value, now));
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long createdAt;
+
+        private Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.annotation.PreDestroy;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// shareit.virtual-threads.enabled=true: запросы Tomcat и асинхронные задачи Spring идут на виртуальных потоках.
+// Требует запуска на Java 21+ (исполнитель берётся через reflection); trace-pinned задаёт jdk.tracePinnedThreads.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "shareit.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+    private static final String TRACE_PINNED_PROPERTY = "jdk.tracePinnedThreads";
+
+    private final ExecutorService executor;
+
+    public VirtualThreadsConfig(@Value("${shareit.virtual-threads.trace-pinned:short}") String tracePinned) {
+        // свойство читается при первом создании виртуального потока, поэтому задаётся до исполнителя
+        if (!tracePinned.isBlank() && System.getProperty(TRACE_PINNED_PROPERTY) == null) {
+            System.setProperty(TRACE_PINNED_PROPERTY, tracePinned);
+        }
+        executor = newVirtualThreadPerTaskExecutor();
+        log.info("Обработка запросов на виртуальных потоках, {}={}", TRACE_PINNED_PROPERTY,
+                System.getProperty(TRACE_PINNED_PROPERTY));
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(executor);
+    }
+
+    // исполнитель передан Tomcat извне, и сам Tomcat его не останавливает
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("shareit.virtual-threads.enabled требует Java 21+, текущая версия "
+                    + Runtime.version(), e);
+        }
+    }
+}
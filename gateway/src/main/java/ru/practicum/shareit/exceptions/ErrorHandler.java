@@ -7,6 +7,7 @@ import org.springframework.web.bind.MissingRequestValueException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.client.ResourceAccessException;
 import ru.practicum.shareit.exceptions.model.BadRequestException;
 import ru.practicum.shareit.exceptions.model.ErrorResponse;
 
@@ -43,6 +44,14 @@ public class ErrorHandler {
         return new ErrorResponse(exception.getMessage());
     }
 
+    // сервер недоступен, не ответил вовремя или в пуле не нашлось свободного соединения
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleResourceAccessException(ResourceAccessException exception) {
+        log.warn("503 {}", exception.getMessage());
+        return new ErrorResponse("Сервер временно недоступен");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowable(Throwable throwable) {
@@ -1,46 +1,87 @@
 package ru.practicum.shareit.item;
 
+import org.apache.http.client.HttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
-import ru.practicum.shareit.client.BaseClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ClientGuard;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.StreamingClient;
+import ru.practicum.shareit.client.TtlCache;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSort;
 
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Locale;
 import java.util.Map;
 
 @Service
-public class ItemClient extends BaseClient {
+public class ItemClient extends ReactiveBaseClient {
     private static final String API_PREFIX = "/items";
+    private static final int SUGGEST_CACHE_SIZE = 10_000;
+
+    private final StreamingClient streaming;
+    private final TtlCache<String, ResponseEntity<Object>> suggestions;
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      ClientHttpConnector shareItServerConnector,
+                      @Qualifier("itemClientGuard") ClientGuard guard, RestTemplateBuilder restBuilder,
+                      HttpClient shareItServerHttpClient,
+                      @Value("${shareit-server.suggest-cache-ttl-ms:2000}") long suggestCacheTtlMs) {
         super(
                 builder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(shareItServerConnector)
+                        .build(),
+                guard
+        );
+        streaming = new StreamingClient(
+                restBuilder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> unbufferedRequestFactory(shareItServerHttpClient))
+                        .build(),
+                guard
         );
+        suggestions = new TtlCache<>(Duration.ofMillis(suggestCacheTtlMs), SUGGEST_CACHE_SIZE);
     }
 
+    // импорт может весить сотни мегабайт, поэтому тело запроса не копируется в память целиком
+    private static HttpComponentsClientHttpRequestFactory unbufferedRequestFactory(HttpClient httpClient) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setBufferRequestBody(false);
+        return requestFactory;
+    }
 
-    public ResponseEntity<Object> postItem(ItemDto itemDto, Long userId) {
+    public Mono<ResponseEntity<Object>> postItem(ItemDto itemDto, Long userId) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> patchItem(ItemDto itemDto, long itemId, Long userId) {
+    public ResponseEntity<Object> importItems(Long userId, MediaType contentType, InputStream body) {
+        return streaming.postStream("/import", userId, contentType, body);
+    }
+
+    public Mono<ResponseEntity<Object>> patchItem(ItemDto itemDto, long itemId, Long userId) {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> getItemById(Long itemId, Long userId) {
+    public Mono<ResponseEntity<Object>> getItemById(Long itemId, Long userId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getAllUsersItems(Long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getAllUsersItems(Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -48,7 +89,7 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getItems(long userId, String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getItems(long userId, String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -57,7 +98,56 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> addComment(Long itemId, Long userId, CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> getItems(long userId, String text, Integer from, Integer size, ItemSort sort) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size,
+                "sort", sort.name()
+        );
+        return get("/search?text={text}&from={from}&size={size}&sort={sort}", userId, parameters);
+    }
+
+    // подсказки не зависят от пользователя, поэтому кэшируются только по префиксу и размеру;
+    // тело ответа читается в массив байт, чтобы его можно было отдавать из кэша повторно
+    public Mono<ResponseEntity<Object>> suggest(Long userId, String prefix, Integer size) {
+        String key = prefix.toLowerCase(Locale.ROOT) + "|" + size;
+        ResponseEntity<Object> cached = suggestions.get(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return getBuffered("/suggest?prefix={prefix}&size={size}", userId, parameters)
+                .doOnNext(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        suggestions.put(key, response);
+                    }
+                });
+    }
+
+    public Mono<ResponseEntity<Object>> getAvailability(Long itemId, Long userId, LocalDate from, LocalDate to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getComments(Long itemId, Long userId, String cursor, Integer size) {
+        if (cursor == null) {
+            return get("/" + itemId + "/comments?size={size}", userId, Map.of("size", size));
+        }
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/" + itemId + "/comments?cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> addComment(Long itemId, Long userId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 }
\ No newline at end of file
@@ -2,16 +2,27 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.exceptions.model.BadRequestException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSort;
 import ru.practicum.shareit.validation.Create;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.time.LocalDate;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -22,47 +33,95 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> addItem(@Validated({Create.class}) @RequestBody ItemDto itemDto,
-                                          @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Mono<ResponseEntity<Object>> addItem(@Validated({Create.class}) @RequestBody ItemDto itemDto,
+                                                @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("post item userId={}, itemDto={}", userId, itemDto);
         return itemClient.postItem(itemDto, userId);
     }
 
+    // NDJSON не разбирается в шлюзе: строки проверяет сервер, а тело передаётся ему потоком
+    @PostMapping(path = "/import", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Object> importItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                              HttpServletRequest request) throws IOException {
+        log.info("Import items userId={}, contentLength={}", userId, request.getContentLengthLong());
+        return itemClient.importItems(userId, MediaType.parseMediaType(request.getContentType()),
+                request.getInputStream());
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestBody ItemDto itemDto,
-                                             @RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @PathVariable long itemId) {
+    public Mono<ResponseEntity<Object>> updateItem(@RequestBody ItemDto itemDto,
+                                                   @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @PathVariable long itemId) {
         log.info("patch item userId={}, itemId= {}, itemDto={}", userId, itemId, itemDto);
         return itemClient.patchItem(itemDto, itemId, userId);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@PathVariable Long itemId,
-                                              @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public Mono<ResponseEntity<Object>> getItemById(@PathVariable Long itemId,
+                                                    @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Get itemId={}, userId={}", itemId, userId);
         return itemClient.getItemById(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<Object>> getAvailability(@PathVariable Long itemId,
+                                                        @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                        @RequestParam(required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam(required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(89);
+        if (end.isBefore(start) || end.isAfter(start.plusYears(1))) {
+            throw new BadRequestException("Некорректный период: " + start + " - " + end);
+        }
+        log.info("Get availability itemId={}, userId={}, from={}, to={}", itemId, userId, start, end);
+        return itemClient.getAvailability(itemId, userId, start, end);
+    }
+
     @GetMapping
-    public ResponseEntity<Object> getAllUsersItems(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                   @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                   @Positive @RequestParam(defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Object>> getAllUsersItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                         @Positive @RequestParam(defaultValue = "10") Integer size) {
         log.info("Get allUserItem userId={}, from={}, size={}", userId, from, size);
         return itemClient.getAllUsersItems(userId, from, size);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> getItems(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @RequestParam String text, @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                           @Positive @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Get /search text={}, from={}, size={}", text, from, size);
+    public Mono<ResponseEntity<Object>> getItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestParam String text, @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                 @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                 @RequestParam(required = false) String sort) {
+        log.info("Get /search text={}, from={}, size={}, sort={}", text, from, size, sort);
+        if (sort != null) {
+            ItemSort itemSort = ItemSort.from(sort)
+                    .orElseThrow(() -> new BadRequestException("Unknown sort: " + sort));
+            return itemClient.getItems(userId, text, from, size, itemSort);
+        }
         return itemClient.getItems(userId, text, from, size);
     }
 
+    @GetMapping("/suggest")
+    public Mono<ResponseEntity<Object>> suggest(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                @NotBlank @Size(max = 100) @RequestParam String prefix,
+                                                @Positive @Max(50) @RequestParam(defaultValue = "10") Integer size) {
+        log.debug("Get /suggest prefix={}, size={}", prefix, size);
+        return itemClient.suggest(userId, prefix, size);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public Mono<ResponseEntity<Object>> getComments(@PathVariable Long itemId,
+                                                    @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @Positive @Max(100) @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Get comments itemId={}, userId={}, cursor={}, size={}", itemId, userId, cursor, size);
+        return itemClient.getComments(itemId, userId, cursor, size);
+    }
+
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@PathVariable Long itemId,
-                                             @RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @Validated({Create.class}) @RequestBody CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> addComment(@PathVariable Long itemId,
+                                                   @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @Validated({Create.class}) @RequestBody CommentDto commentDto) {
         log.info("Post comment userId={}, itemId={}, commentDto={}", userId, itemId, commentDto);
         return itemClient.addComment(itemId, userId, commentDto);
     }
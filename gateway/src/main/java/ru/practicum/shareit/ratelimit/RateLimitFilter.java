@@ -0,0 +1,109 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.exceptions.model.ErrorResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Ограничивает частоту запросов каждого пользователя до контроллеров. Запросы без X-Sharer-User-Id
+// (или с нечисловым) пропускаются: их отклонит контроллер. Сверх лимита - 429 с Retry-After в секундах.
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final String DEFAULT_ROUTE = "default";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<LimitedRoute> routes;
+    private final LimitedRoute defaultRoute;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.routes = properties.getRoutes().stream()
+                .map(route -> new LimitedRoute(route.getPath(), route.getMethod(),
+                        limiter(route, properties.getMaxUsers()), meterRegistry))
+                .collect(Collectors.toList());
+        this.defaultRoute = new LimitedRoute(DEFAULT_ROUTE, null,
+                limiter(properties.getDefaultLimit(), properties.getMaxUsers()), meterRegistry);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long userId = userId(request);
+        if (userId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        LimitedRoute route = route(request);
+        long waitNanos = route.limiter.tryAcquire(userId);
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        route.rejected.increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse("Слишком много запросов"));
+    }
+
+    private LimitedRoute route(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (LimitedRoute route : routes) {
+            if ((route.method == null || route.method.equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(route.path, path)) {
+                return route;
+            }
+        }
+        return defaultRoute;
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        String header = request.getHeader(USER_HEADER);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static RateLimiter limiter(RateLimitProperties.Limit limit, int maxUsers) {
+        return new RateLimiter(limit.getCapacity(), limit.getPerSecond(), maxUsers);
+    }
+
+    private static final class LimitedRoute {
+        private final String path;
+        private final String method;
+        private final RateLimiter limiter;
+        private final Counter rejected;
+
+        private LimitedRoute(String path, String method, RateLimiter limiter, MeterRegistry meterRegistry) {
+            this.path = path;
+            this.method = method;
+            this.limiter = limiter;
+            this.rejected = Counter.builder("shareit.rate-limit.rejected")
+                    .tag("route", method == null ? path : method + " " + path)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Лимиты запросов на пользователя: общий для всех маршрутов и отдельные для перечисленных в routes.
+// Маршрут задаётся шаблоном пути (AntPathMatcher) и, если нужно, HTTP-методом; выигрывает первый совпавший.
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled;
+    private int maxUsers = 100_000;
+    private Limit defaultLimit = new Limit();
+    private List<Route> routes = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private int capacity = 50;
+        private double perSecond = 20;
+    }
+
+    @Getter
+    @Setter
+    public static class Route extends Limit {
+        private String path;
+        private String method;
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Ведро токенов на каждого пользователя: до capacity запросов подряд, дальше perSecond запросов в секунду.
+// Состояние ведра - одно число, момент, когда оно снова станет полным (алгоритм GCRA), поэтому
+// списание токена - один compareAndSet без блокировок. Полное ведро ничем не отличается от отсутствующего,
+// и при заполнении карты такие вёдра удаляются без потери лимитов. Если и после этого места нет,
+// новые пользователи делят одно общее ведро, пока старые не освободят место.
+public class RateLimiter {
+    private static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxUsers;
+    private final LongSupplier clock;
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Bucket overflow;
+    private final AtomicLong lastSweep;
+
+    public RateLimiter(int capacity, double perSecond, int maxUsers) {
+        this(capacity, perSecond, maxUsers, System::nanoTime);
+    }
+
+    public RateLimiter(int capacity, double perSecond, int maxUsers, LongSupplier clock) {
+        if (capacity < 1 || perSecond <= 0 || maxUsers < 1) {
+            throw new IllegalArgumentException("Некорректный лимит: capacity=" + capacity
+                    + ", perSecond=" + perSecond + ", maxUsers=" + maxUsers);
+        }
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000L / perSecond));
+        this.burstNanos = intervalNanos * capacity;
+        this.maxUsers = maxUsers;
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.overflow = new Bucket(now);
+        this.lastSweep = new AtomicLong(now - SWEEP_INTERVAL_NANOS);
+    }
+
+    // 0, если токен списан, иначе сколько наносекунд ждать следующего
+    public long tryAcquire(long userId) {
+        long now = clock.getAsLong();
+        return bucket(userId, now).tryAcquire(now);
+    }
+
+    private Bucket bucket(long userId, long now) {
+        Bucket bucket = buckets.get(userId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxUsers && !sweep(now)) {
+            return overflow;
+        }
+        return buckets.computeIfAbsent(userId, id -> new Bucket(now));
+    }
+
+    // удаляет полные вёдра не чаще раза в секунду, чтобы поток новых пользователей не превращал
+    // каждый запрос в обход всей карты; запрос, успевший взять удаляемое ведро, спишет токен с него,
+    // что даёт пользователю не больше capacity лишних запросов
+    private boolean sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last >= SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        return buckets.size() < maxUsers;
+    }
+
+    private final class Bucket {
+        // момент, когда ведро снова будет полным
+        private final AtomicLong fullAt;
+
+        private Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        private long tryAcquire(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long excess = next - now - burstNanos;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        private boolean isFull(long now) {
+            return fullAt.get() <= now;
+        }
+    }
+}
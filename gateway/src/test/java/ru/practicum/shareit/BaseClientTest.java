@@ -0,0 +1,129 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.CallRejectedException;
+import ru.practicum.shareit.client.ClientGuard;
+import ru.practicum.shareit.client.ClientGuardProperties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class BaseClientTest {
+    private static final String BOOKINGS = "[{\"id\":1,\"status\":\"WAITING\"},{\"id\":2,\"status\":\"APPROVED\"}]";
+
+    private RestTemplate rest;
+    private MockRestServiceServer server;
+    private TestClient client;
+
+    @BeforeEach
+    void setUp() {
+        rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://shareit-server"));
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new TestClient(rest);
+    }
+
+    @Test
+    void get_passesServerBodyAndContentTypeThroughUnparsed() throws IOException {
+        server.expect(requestTo("http://shareit-server/bookings?state=ALL"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess(BOOKINGS, MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Object> response = client.getBookings(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals(BOOKINGS, read(response));
+        server.verify();
+    }
+
+    @Test
+    void get_passesServerErrorsThroughWithTheirBody() throws IOException {
+        String error = "{\"error\":\"Пользователь не найден\"}";
+        server.expect(requestTo("http://shareit-server/bookings?state=ALL"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(error));
+
+        ResponseEntity<Object> response = client.getBookings(1L);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(error, read(response));
+    }
+
+    @Test
+    void buffered_readsBodyOnceIntoBytes() {
+        server.expect(requestTo("http://shareit-server/bookings?state=ALL"))
+                .andRespond(withSuccess(BOOKINGS, MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Object> response = client.getBookingsBuffered(1L);
+
+        assertInstanceOf(byte[].class, response.getBody());
+        assertArrayEquals(BOOKINGS.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    void streamedBody_holdsBulkheadSlotUntilClosed() throws IOException {
+        ClientGuardProperties.Limits limits = new ClientGuardProperties().getDefaults();
+        limits.setMaxConcurrent(1);
+        TestClient guarded = new TestClient(rest, new ClientGuard("booking", limits, new SimpleMeterRegistry()));
+        server.expect(ExpectedCount.twice(), requestTo("http://shareit-server/bookings?state=ALL"))
+                .andRespond(withSuccess(BOOKINGS, MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Object> response = guarded.getBookings(1L);
+
+        assertThrows(CallRejectedException.class, () -> guarded.getBookings(1L));
+        assertEquals(BOOKINGS, read(response));
+        assertEquals(BOOKINGS, read(guarded.getBookings(1L)));
+    }
+
+    private static String read(ResponseEntity<Object> response) throws IOException {
+        Resource body = assertInstanceOf(Resource.class, response.getBody());
+        try (InputStream in = body.getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest) {
+            super(rest);
+        }
+
+        TestClient(RestTemplate rest, ClientGuard guard) {
+            super(rest, guard);
+        }
+
+        ResponseEntity<Object> getBookings(long userId) {
+            return get("/bookings?state={state}", userId, Map.of("state", "ALL"));
+        }
+
+        ResponseEntity<Object> getBookingsBuffered(long userId) {
+            return buffered(getBookings(userId));
+        }
+    }
+}
@@ -8,18 +8,24 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.BookingClient;
 import ru.practicum.shareit.booking.BookingController;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -41,13 +47,16 @@ public class BookingControllerTest {
         String bookingJson = objectMapper.writeValueAsString(bookingDto);
         ResponseEntity<Object> response = new ResponseEntity<>(bookingJson, HttpStatus.OK);
         when(bookingClient.bookItem(ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
-                .thenReturn(response);
-        String content = mockMvc.perform(MockMvcRequestBuilders.post("/bookings")
+                .thenReturn(Mono.just(response));
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/bookings")
                         .header("X-Sharer-User-Id", 1)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(getBookingDto(LocalDateTime.now().plusDays(2))))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        String content = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andReturn()
                 .getResponse()
@@ -71,6 +80,44 @@ public class BookingControllerTest {
         Mockito.verify(bookingClient, Mockito.never()).bookItem(ArgumentMatchers.anyInt(), ArgumentMatchers.any());
     }
 
+    @Test
+    void addBookingsBatch() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookItemRequestDto> batch = List.of(
+                new BookItemRequestDto(1, start, start.plusDays(1)),
+                new BookItemRequestDto(2, start, start.plusDays(2)));
+        when(bookingClient.bookItems(ArgumentMatchers.anyLong(), ArgumentMatchers.anyList()))
+                .thenReturn(Mono.just(new ResponseEntity<>(List.of(), HttpStatus.OK)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk());
+        Mockito.verify(bookingClient).bookItems(ArgumentMatchers.eq(1L), ArgumentMatchers.argThat(entries ->
+                entries.size() == 2 && entries.get(1).getItemId() == 2));
+    }
+
+    @Test
+    void addBookingsBatchWithInvalidEntryOrEmpty() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookItemRequestDto> batch = List.of(
+                new BookItemRequestDto(1, start, start.plusDays(1)),
+                new BookItemRequestDto(2, start, start));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+        Mockito.verify(bookingClient, Mockito.never()).bookItems(ArgumentMatchers.anyLong(), ArgumentMatchers.anyList());
+    }
+
     @Test
     void getBooking() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.get("/bookings/{bookingId}", 1)
@@ -132,6 +179,42 @@ public class BookingControllerTest {
         Mockito.verify(bookingClient, Mockito.never()).getBookings(1, BookingState.valueOf("ALL"), -1, 0);
     }
 
+    @Test
+    void getBookingsByCursor() throws Exception {
+        String after = "2030-01-01T10:00:00,15";
+        mockMvc.perform(MockMvcRequestBuilders.get("/bookings?after={after}&size={size}", after, 5)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk());
+        Mockito.verify(bookingClient).getBookings(1, BookingState.ALL, after, 5);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/bookings/owner?state={state}&after={after}", "PAST", after)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk());
+        Mockito.verify(bookingClient).ownerItemsBookingLists(1L, BookingState.PAST, after, 10);
+    }
+
+    @Test
+    void exportBookings() throws Exception {
+        byte[] ndjson = "{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8);
+        when(bookingClient.exportBookings(1L, BookingState.PAST)).thenReturn(ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .<Object>body(new InputStreamResource(new ByteArrayInputStream(ndjson))));
+
+        String content = mockMvc.perform(MockMvcRequestBuilders.get("/bookings/export?state=past")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Assertions.assertEquals("{\"id\":1}\n{\"id\":2}\n", content);
+        mockMvc.perform(MockMvcRequestBuilders.get("/bookings/owner/export?state=unknown")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest());
+        Mockito.verify(bookingClient, Mockito.never()).exportOwnerBookings(ArgumentMatchers.anyLong(),
+                ArgumentMatchers.any());
+    }
+
     BookItemRequestDto getBookingDto(LocalDateTime end) {
         return new BookItemRequestDto(1,
                 LocalDateTime.now().plusDays(1),
@@ -0,0 +1,125 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.client.CallRejectedException;
+import ru.practicum.shareit.client.CircuitBreaker;
+import ru.practicum.shareit.client.ClientGuard;
+import ru.practicum.shareit.client.ClientGuardProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClientGuardTest {
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void bulkhead_rejectsCallsAboveLimitUntilReleased() {
+        ClientGuard guard = guard(limits(2));
+
+        ClientGuard.Permit first = guard.acquire();
+        guard.acquire();
+        assertThrows(CallRejectedException.class, guard::acquire);
+        assertEquals(2, meterRegistry.get("shareit.client.in-flight").tag("client", "booking").gauge().value());
+
+        first.record(false);
+        first.release();
+        first.release();
+        guard.acquire();
+        assertThrows(CallRejectedException.class, guard::acquire);
+        assertEquals(2, meterRegistry.get("shareit.client.rejected")
+                .tags("client", "booking", "reason", "bulkhead").counter().count());
+    }
+
+    @Test
+    void circuit_opensOnFailureRateThenRecoversAfterTrialCalls() {
+        ClientGuard guard = guard(limits(100));
+
+        for (int i = 0; i < 4; i++) {
+            call(guard, i % 2 == 0);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.state());
+        assertThrows(CallRejectedException.class, guard::acquire);
+        assertEquals(1, meterRegistry.get("shareit.client.circuit.state").tag("client", "booking").gauge().value());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        call(guard, false);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, guard.state());
+        call(guard, false);
+        assertEquals(CircuitBreaker.State.CLOSED, guard.state());
+
+        assertEquals(1, transitions("CLOSED", "OPEN"));
+        assertEquals(1, transitions("OPEN", "HALF_OPEN"));
+        assertEquals(1, transitions("HALF_OPEN", "CLOSED"));
+        assertEquals(1, meterRegistry.get("shareit.client.rejected")
+                .tags("client", "booking", "reason", "circuit-open").counter().count());
+    }
+
+    @Test
+    void circuit_opensOnSlowCallsAndReopensOnFailedTrial() {
+        ClientGuard guard = guard(limits(100));
+
+        for (int i = 0; i < 4; i++) {
+            ClientGuard.Permit permit = guard.acquire();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_500));
+            permit.record(false);
+            permit.release();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.state());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        call(guard, true);
+        assertEquals(CircuitBreaker.State.OPEN, guard.state());
+        assertEquals(1, transitions("HALF_OPEN", "OPEN"));
+    }
+
+    @Test
+    void cancelledTrialCall_returnsItsPermit() {
+        ClientGuard guard = guard(limits(100));
+        for (int i = 0; i < 4; i++) {
+            call(guard, true);
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        guard.acquire().release();
+        guard.acquire().release();
+        call(guard, false);
+        call(guard, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, guard.state());
+    }
+
+    private void call(ClientGuard guard, boolean failure) {
+        ClientGuard.Permit permit = guard.acquire();
+        permit.record(failure);
+        permit.release();
+    }
+
+    private double transitions(String from, String to) {
+        return meterRegistry.get("shareit.client.circuit.transitions")
+                .tags("client", "booking", "from", from, "to", to).counter().count();
+    }
+
+    private ClientGuard guard(ClientGuardProperties.Limits limits) {
+        return new ClientGuard("booking", limits, meterRegistry, clock::get);
+    }
+
+    // окно из 4 вызовов, порог ошибок 50%, медленный вызов - от секунды, 2 пробных вызова
+    private static ClientGuardProperties.Limits limits(int maxConcurrent) {
+        ClientGuardProperties properties = new ClientGuardProperties();
+        ClientGuardProperties.Limits limits = properties.getDefaults();
+        limits.setMaxConcurrent(maxConcurrent);
+        limits.setWindowSize(4);
+        limits.setMinimumCalls(4);
+        limits.setFailureRatePercent(50);
+        limits.setSlowCallRatePercent(100);
+        limits.setSlowCallMs(1_000L);
+        limits.setOpenMs(10_000L);
+        limits.setHalfOpenCalls(2);
+        return limits;
+    }
+}
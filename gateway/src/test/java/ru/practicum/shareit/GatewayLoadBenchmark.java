@@ -0,0 +1,124 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// p99 задержки шлюза при CONCURRENCY одновременных запросах и сервере, отвечающем за SERVER_DELAY.
+// Tomcat шлюза урезан до TOMCAT_THREADS потоков: GET /users/{id} идёт через ReactiveBaseClient
+// и не держит поток на время ответа сервера, а GET /bookings/export - через блокирующий
+// StreamingClient, и там число потоков ограничивает пропускную способность. Ответ /users/{id} короткий:
+// тело ReactiveBaseClient копирует клиенту блокирующим чтением в потоке Tomcat, поэтому на больших телах
+// поток снова занят на всё время передачи, и этот бенчмарк такой случай не измеряет.
+// В обычный прогон не входит: mvn test -Dtest=GatewayLoadBenchmark
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=" + GatewayLoadBenchmark.TOMCAT_THREADS,
+        "server.tomcat.max-connections=" + 4 * GatewayLoadBenchmark.CONCURRENCY,
+        "shareit-server.pool.max-total=" + GatewayLoadBenchmark.CONCURRENCY,
+        "shareit-server.pool.max-per-route=" + GatewayLoadBenchmark.CONCURRENCY,
+        "shareit-server.pool.acquire-timeout-ms=60000",
+        "shareit.rate-limit.enabled=false",
+        "logging.level.ru.practicum.shareit=WARN"
+})
+public class GatewayLoadBenchmark {
+    static final int TOMCAT_THREADS = 20;
+    static final int CONCURRENCY = 1_000;
+    private static final int REQUESTS = 5 * CONCURRENCY;
+    private static final Duration SERVER_DELAY = Duration.ofMillis(50);
+
+    private static final DisposableServer server = HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                    .get("/users/{userId}", (request, response) -> response
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .sendString(Mono.just("{\"id\":" + request.param("userId")
+                                    + ",\"name\":\"user\",\"email\":\"user@mail.ru\"}").delayElement(SERVER_DELAY)))
+                    .get("/bookings/export", (request, response) -> response
+                            .header(HttpHeaders.CONTENT_TYPE, "application/x-ndjson")
+                            .sendString(Mono.just("{\"id\":1,\"status\":\"APPROVED\"}\n").delayElement(SERVER_DELAY))))
+            .bindNow();
+
+    @LocalServerPort
+    int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.port());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.disposeNow();
+    }
+
+    @Test
+    void reactiveVersusBlockingP99() {
+        ConnectionProvider connections = ConnectionProvider.builder("load")
+                .maxConnections(CONCURRENCY)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient client = HttpClient.create(connections)
+                .baseUrl("http://localhost:" + port)
+                .headers(headers -> headers.add("X-Sharer-User-Id", "1"));
+        try {
+            run(client, "/users/1", CONCURRENCY);
+            run(client, "/bookings/export", CONCURRENCY);
+
+            long[] reactive = run(client, "/users/1", REQUESTS);
+            long[] blocking = run(client, "/bookings/export", REQUESTS);
+
+            log.warn("{} запросов по {} одновременно, сервер отвечает за {} мс, {} потоков Tomcat: "
+                            + "неблокирующий путь p50={} мс p99={} мс, блокирующий путь p50={} мс p99={} мс",
+                    REQUESTS, CONCURRENCY, SERVER_DELAY.toMillis(), TOMCAT_THREADS,
+                    percentile(reactive, 50), percentile(reactive, 99),
+                    percentile(blocking, 50), percentile(blocking, 99));
+            assertThat(percentile(reactive, 99)).isLessThan(percentile(blocking, 99));
+        } finally {
+            connections.disposeLater().block();
+        }
+    }
+
+    // задержки всех запросов в миллисекундах, отсортированные по возрастанию
+    private static long[] run(HttpClient client, String uri, int requests) {
+        List<Long> latencies = Flux.range(0, requests)
+                .flatMap(i -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return client.get()
+                            .uri(uri)
+                            .responseSingle((response, body) -> body.asByteArray()
+                                    .defaultIfEmpty(new byte[0])
+                                    .map(bytes -> {
+                                        assertThat(response.status().code()).isEqualTo(200);
+                                        return (System.nanoTime() - start) / 1_000_000;
+                                    }));
+                }), CONCURRENCY)
+                .collectList()
+                .block();
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+}
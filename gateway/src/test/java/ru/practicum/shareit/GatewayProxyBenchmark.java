@@ -0,0 +1,129 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.BaseClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.anything;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+// Процессорное время и выделенная память шлюза на один ответ со списком из 1000 бронирований:
+// разбор в Object и повторная сериализация Jackson (как было) против копирования байтов.
+// Сервер подменён MockRestServiceServer, поэтому измеряется только работа шлюза.
+// В обычный прогон не входит: mvn test -Dtest=GatewayProxyBenchmark
+@Slf4j
+public class GatewayProxyBenchmark {
+    private static final int BOOKINGS = 1_000;
+    private static final int WARMUP = 300;
+    private static final int ITERATIONS = 2_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void proxyBookingList() throws IOException {
+        String body = objectMapper.writeValueAsString(bookings());
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://shareit-server"));
+        MockRestServiceServer.bindTo(rest).build()
+                .expect(ExpectedCount.manyTimes(), anything())
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+        BenchmarkClient client = new BenchmarkClient(rest);
+
+        long[] parsed = measure(() -> {
+            ResponseEntity<Object> response = rest.exchange("/bookings", HttpMethod.GET,
+                    HttpEntity.EMPTY, Object.class);
+            objectMapper.writeValue(OutputStream.nullOutputStream(), response.getBody());
+        });
+        long[] proxied = measure(() -> {
+            ResponseEntity<Object> response = client.getBookings();
+            try (InputStream in = ((Resource) response.getBody()).getInputStream()) {
+                StreamUtils.copy(in, OutputStream.nullOutputStream());
+            }
+        });
+
+        log.info("Список из {} бронирований ({} байт): разбор и сериализация - {} мкс CPU и {} КБ на ответ, "
+                        + "копирование байтов - {} мкс CPU и {} КБ на ответ",
+                BOOKINGS, body.length(), parsed[0] / 1_000, parsed[1] / 1_024, proxied[0] / 1_000, proxied[1] / 1_024);
+        assertThat(proxied[1]).isLessThan(parsed[1]);
+        assertThat(proxied[0]).isLessThan(parsed[0]);
+    }
+
+    // среднее процессорное время (нс) и число выделенных байт текущего потока на одну итерацию
+    private long[] measure(Call call) throws IOException {
+        for (int i = 0; i < WARMUP; i++) {
+            call.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.run();
+        }
+        long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        return new long[]{cpu / ITERATIONS, allocated / ITERATIONS};
+    }
+
+    private static List<Map<String, Object>> bookings() {
+        List<Map<String, Object>> bookings = new ArrayList<>(BOOKINGS);
+        for (int i = 1; i <= BOOKINGS; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i % 50 + 1);
+            item.put("name", "Дрель " + i);
+            item.put("description", "Ударная дрель с набором свёрл");
+            item.put("available", true);
+            item.put("requestId", null);
+            Map<String, Object> booker = new LinkedHashMap<>();
+            booker.put("id", i % 20 + 1);
+            booker.put("name", "Арендатор " + i);
+            booker.put("email", "booker" + i + "@mail.ru");
+            Map<String, Object> booking = new LinkedHashMap<>();
+            booking.put("id", i);
+            booking.put("start", "2030-01-01T10:00:00");
+            booking.put("end", "2030-01-02T10:00:00");
+            booking.put("itemId", null);
+            booking.put("item", item);
+            booking.put("booker", booker);
+            booking.put("status", "APPROVED");
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    private interface Call {
+        void run() throws IOException;
+    }
+
+    private static class BenchmarkClient extends BaseClient {
+        BenchmarkClient(RestTemplate rest) {
+            super(rest);
+        }
+
+        ResponseEntity<Object> getBookings() {
+            return get("/bookings", 1L);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Пропускная способность и память шлюза при CONNECTIONS одновременных соединениях на блокирующем пути
+// GET /bookings/export (StreamingClient) в двух режимах: пул потоков Tomcat по умолчанию и
+// shareit.virtual-threads.enabled=true. Сервер подменён заглушкой с задержкой SERVER_DELAY; она, как и
+// генератор нагрузки, работает в той же JVM, но одинаково в обоих режимах.
+// Числа только печатаются: они зависят от машины, и тест не сравнивает режимы между собой.
+// Требует Java 21+. В обычный прогон не входит: mvn test -Dtest=GatewayVirtualThreadsBenchmark
+@Slf4j
+public class GatewayVirtualThreadsBenchmark {
+    private static final int CONNECTIONS = 5_000;
+    private static final int REQUESTS = 4 * CONNECTIONS;
+    private static final Duration SERVER_DELAY = Duration.ofMillis(50);
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .collect(Collectors.toList());
+
+    @Test
+    void platformVersusVirtualThreads() {
+        assumeTrue(Runtime.version().feature() >= 21, "виртуальные потоки появились в Java 21");
+        DisposableServer server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/bookings/export", (request, response) -> response
+                        .header(HttpHeaders.CONTENT_TYPE, "application/x-ndjson")
+                        .sendString(Mono.just("{\"id\":1,\"status\":\"APPROVED\"}\n").delayElement(SERVER_DELAY))))
+                .bindNow();
+        try {
+            Result platform = measure(server, false);
+            Result virtual = measure(server, true);
+
+            log.warn("{} запросов по {} соединений, сервер отвечает за {} мс. Потоки платформы: {} запр/с, "
+                            + "пик {} потоков, пик кучи {} МБ. Виртуальные потоки: {} запр/с, пик {} потоков, "
+                            + "пик кучи {} МБ",
+                    REQUESTS, CONNECTIONS, SERVER_DELAY.toMillis(),
+                    platform.throughput, platform.peakThreads, platform.peakHeapMb,
+                    virtual.throughput, virtual.peakThreads, virtual.peakHeapMb);
+        } finally {
+            server.disposeNow();
+        }
+    }
+
+    private Result measure(DisposableServer server, boolean virtualThreads) {
+        ConfigurableApplicationContext gateway = new SpringApplicationBuilder(ShareItGateway.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.max-connections=" + 2 * CONNECTIONS,
+                        "server.tomcat.accept-count=" + CONNECTIONS,
+                        "shareit-server.url=http://localhost:" + server.port(),
+                        "shareit-server.pool.max-total=" + CONNECTIONS,
+                        "shareit-server.pool.max-per-route=" + CONNECTIONS,
+                        "shareit-server.pool.acquire-timeout-ms=60000",
+                        "shareit.virtual-threads.enabled=" + virtualThreads,
+                        "shareit.virtual-threads.trace-pinned=",
+                        "shareit.rate-limit.enabled=false",
+                        "logging.level.ru.practicum.shareit=WARN")
+                .run();
+        ConnectionProvider connections = ConnectionProvider.builder("load")
+                .maxConnections(CONNECTIONS)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        try {
+            int port = ((WebServerApplicationContext) gateway).getWebServer().getPort();
+            HttpClient client = HttpClient.create(connections)
+                    .baseUrl("http://localhost:" + port)
+                    .headers(headers -> headers.add("X-Sharer-User-Id", "1"))
+                    .responseTimeout(Duration.ofMinutes(1));
+            run(client, CONNECTIONS);
+
+            System.gc();
+            threads.resetPeakThreadCount();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long start = System.nanoTime();
+            run(client, REQUESTS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            return new Result((long) (REQUESTS / seconds), threads.getPeakThreadCount(), peakHeap / (1024 * 1024));
+        } finally {
+            connections.disposeLater().block();
+            gateway.close();
+        }
+    }
+
+    private static void run(HttpClient client, int requests) {
+        Flux.range(0, requests)
+                .flatMap(i -> client.get()
+                        .uri("/bookings/export?state=all")
+                        .responseSingle((response, body) -> body.asByteArray()
+                                .defaultIfEmpty(new byte[0])
+                                .doOnNext(bytes -> assertThat(response.status().code()).isEqualTo(200))), CONNECTIONS)
+                .blockLast();
+    }
+
+    private static class Result {
+        private final long throughput;
+        private final int peakThreads;
+        private final long peakHeapMb;
+
+        private Result(long throughput, int peakThreads, long peakHeapMb) {
+            this.throughput = throughput;
+            this.peakThreads = peakThreads;
+            this.peakHeapMb = peakHeapMb;
+        }
+    }
+}
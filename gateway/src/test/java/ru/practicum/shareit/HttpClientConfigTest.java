@@ -0,0 +1,31 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.client.HttpClientConfig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class HttpClientConfigTest {
+    private final HttpClientConfig config = new HttpClientConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void connectionManager_appliesLimitsAndExportsPoolGauges() {
+        PoolingHttpClientConnectionManager connectionManager =
+                config.shareItServerConnectionManager(40, 20, 2000, meterRegistry);
+
+        assertEquals(40, connectionManager.getMaxTotal());
+        assertEquals(20, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(40, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "shareit-server").gauge().value());
+        assertNotNull(meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("state", "leased").gauge());
+        assertNotNull(meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("state", "available").gauge());
+        assertEquals(0, meterRegistry.get("httpcomponents.httpclient.pool.total.pending").gauge().value());
+        connectionManager.close();
+    }
+}
@@ -12,15 +12,21 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.util.StreamUtils;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.ItemClient;
 import ru.practicum.shareit.item.ItemController;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSort;
 
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 
 import static org.mockito.Mockito.when;
 
@@ -40,13 +46,16 @@ public class ItemControllerTest {
         ItemDto itemDto = getItemDto("name item");
         String itemJson = objectMapper.writeValueAsString(itemDto);
         ResponseEntity<Object> response = new ResponseEntity<>(itemJson, HttpStatus.OK);
-        when(itemClient.postItem(ArgumentMatchers.any(), ArgumentMatchers.anyLong())).thenReturn(response);
-        String content = mockMvc.perform(MockMvcRequestBuilders.post("/items")
+        when(itemClient.postItem(ArgumentMatchers.any(), ArgumentMatchers.anyLong())).thenReturn(Mono.just(response));
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/items")
                         .header("X-Sharer-User-Id", userId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(getItemDto("name item")))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        String content = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andReturn()
                 .getResponse()
@@ -73,6 +82,28 @@ public class ItemControllerTest {
         Mockito.verify(itemClient, Mockito.never()).postItem(ArgumentMatchers.any(), ArgumentMatchers.anyLong());
     }
 
+    @Test
+    void importItems() throws Exception {
+        String body = "{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true}\n"
+                + "{\"name\":\"Пила\",\"description\":\"Ручная\",\"available\":true}\n";
+        ResponseEntity<Object> response = new ResponseEntity<>("{\"created\":2,\"failed\":0}", HttpStatus.OK);
+        when(itemClient.importItems(ArgumentMatchers.eq(1L), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> {
+                    InputStream forwarded = invocation.getArgument(2);
+                    Assertions.assertEquals(body, StreamUtils.copyToString(forwarded, StandardCharsets.UTF_8));
+                    return response;
+                });
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/items/import")
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType("application/x-ndjson")
+                        .content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        Mockito.verify(itemClient).importItems(ArgumentMatchers.eq(1L),
+                ArgumentMatchers.eq(MediaType.parseMediaType("application/x-ndjson")), ArgumentMatchers.any());
+    }
+
     @Test
     void pathItem() throws Exception {
         int userId = 1;
@@ -81,13 +112,16 @@ public class ItemControllerTest {
         String itemJson = objectMapper.writeValueAsString(itemDto);
         ResponseEntity<Object> response = new ResponseEntity<>(itemJson, HttpStatus.OK);
         Mockito.when(itemClient.patchItem(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong()))
-                .thenReturn(response);
-        String content = mockMvc.perform(MockMvcRequestBuilders.patch("/items/{itemId}", itemId)
+                .thenReturn(Mono.just(response));
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.patch("/items/{itemId}", itemId)
                         .header("X-Sharer-User-Id", userId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(itemDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        String content = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andReturn()
                 .getResponse()
@@ -151,13 +185,16 @@ public class ItemControllerTest {
         CommentDto commentDto = new CommentDto(1L, "comment text", null, "user");
         String commentJson = objectMapper.writeValueAsString(commentDto);
         ResponseEntity<Object> response = new ResponseEntity<>(commentJson, HttpStatus.OK);
-        Mockito.when(itemClient.addComment(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong(), ArgumentMatchers.any())).thenReturn(response);
-        String content = mockMvc.perform(MockMvcRequestBuilders.post("/items/{itemId}/comment", itemId)
+        Mockito.when(itemClient.addComment(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong(), ArgumentMatchers.any())).thenReturn(Mono.just(response));
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/items/{itemId}/comment", itemId)
                         .header("X-Sharer-User-Id", userId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(commentDto))
                         .characterEncoding(StandardCharsets.UTF_8)
                         .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        String content = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andReturn()
                 .getResponse()
@@ -165,6 +202,76 @@ public class ItemControllerTest {
         Assertions.assertEquals(objectMapper.writeValueAsString(commentDto), content);
     }
 
+    @Test
+    void getAvailability() throws Exception {
+        long itemId = 1L;
+        long userId = 1L;
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/{itemId}/availability", itemId)
+                        .header("X-Sharer-User-Id", userId)
+                        .param("from", "2030-01-01"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/{itemId}/availability", itemId)
+                        .header("X-Sharer-User-Id", userId)
+                        .param("from", "2030-01-10")
+                        .param("to", "2030-01-01"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(itemClient).getAvailability(itemId, userId, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 3, 31));
+        Mockito.verifyNoMoreInteractions(itemClient);
+    }
+
+    @Test
+    void getItemsByRelevance() throws Exception {
+        long userId = 1L;
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/search")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("text", "дрель")
+                        .param("sort", "relevance"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/search")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("text", "дрель")
+                        .param("sort", "price"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(itemClient).getItems(userId, "дрель", 0, 10, ItemSort.RELEVANCE);
+        Mockito.verifyNoMoreInteractions(itemClient);
+    }
+
+    @Test
+    void suggest() throws Exception {
+        long userId = 1L;
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/suggest")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("prefix", "дре"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/suggest")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("prefix", " "))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(itemClient).suggest(userId, "дре", 10);
+        Mockito.verifyNoMoreInteractions(itemClient);
+    }
+
+    @Test
+    void getComments() throws Exception {
+        long userId = 1L;
+        long itemId = 2L;
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/{itemId}/comments", itemId)
+                        .header("X-Sharer-User-Id", userId)
+                        .param("cursor", "2030-01-01T10:00:00,5")
+                        .param("size", "20"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/{itemId}/comments", itemId)
+                        .header("X-Sharer-User-Id", userId)
+                        .param("size", "500"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(itemClient).getComments(itemId, userId, "2030-01-01T10:00:00,5", 20);
+        Mockito.verifyNoMoreInteractions(itemClient);
+    }
+
     ItemDto getItemDto(String name) {
         return new ItemDto(
                 1L,
@@ -0,0 +1,27 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import ru.practicum.shareit.ratelimit.RateLimitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitConfigTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(RateLimitConfig.class)
+            .withBean(ObjectMapper.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    @Test
+    void filter_isOffUnlessEnabledExplicitly() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(FilterRegistrationBean.class));
+        contextRunner.withPropertyValues("shareit.rate-limit.enabled=false")
+                .run(context -> assertThat(context).doesNotHaveBean(FilterRegistrationBean.class));
+        contextRunner.withPropertyValues("shareit.rate-limit.enabled=true")
+                .run(context -> assertThat(context).hasSingleBean(FilterRegistrationBean.class));
+    }
+}
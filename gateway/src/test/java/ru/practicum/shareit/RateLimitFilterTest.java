@@ -0,0 +1,88 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.ratelimit.RateLimitFilter;
+import ru.practicum.shareit.ratelimit.RateLimitProperties;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimitFilterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Route search = new RateLimitProperties.Route();
+        search.setPath("/items/search");
+        search.setMethod("GET");
+        search.setCapacity(2);
+        search.setPerSecond(0.5);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getDefaultLimit().setCapacity(5);
+        properties.setRoutes(List.of(search));
+        filter = new RateLimitFilter(properties, new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void routeLimit_returns429WithRetryAfterOnceExhausted() throws Exception {
+        assertEquals(200, perform("GET", "/items/search", "1").getStatus());
+        assertEquals(200, perform("GET", "/items/search", "1").getStatus());
+
+        MockHttpServletResponse rejected = perform("GET", "/items/search", "1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("2", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(rejected.getContentAsString().contains("\"error\""));
+        assertEquals(1, meterRegistry.get("shareit.rate-limit.rejected")
+                .tag("route", "GET /items/search").counter().count());
+    }
+
+    @Test
+    void otherRoutesAndUsers_useTheirOwnBuckets() throws Exception {
+        perform("GET", "/items/search", "1");
+        perform("GET", "/items/search", "1");
+
+        assertEquals(200, perform("GET", "/items/search", "2").getStatus());
+        assertEquals(200, perform("GET", "/items/1", "1").getStatus());
+        for (int i = 0; i < 4; i++) {
+            perform("POST", "/items/search", "1");
+        }
+        assertEquals(429, perform("POST", "/items/search", "1").getStatus());
+    }
+
+    @Test
+    void requestWithoutUserHeader_isLeftToController() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletResponse response = perform("GET", "/users", null);
+            assertEquals(200, response.getStatus());
+            assertNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+        }
+        assertEquals(200, perform("GET", "/items/search", "не число").getStatus());
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String userId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        if (userId != null) {
+            request.addHeader("X-Sharer-User-Id", userId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        if (response.getStatus() == 200) {
+            assertNotNull(chain.getRequest());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.ratelimit.RateLimiter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Стоимость RateLimiter.tryAcquire под конкуренцией THREADS потоков: все потоки на одном пользователе
+// (один compareAndSet на всех), на разных пользователях и на исчерпанном ведре (отказ без записи).
+// Результат - среднее время одного вызова; для сравнения - обращение к шлюзу занимает миллисекунды.
+// В обычный прогон не входит: mvn test -Dtest=RateLimiterBenchmark
+@Slf4j
+public class RateLimiterBenchmark {
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 2_000_000;
+    private static final int USERS = 10_000;
+
+    @Test
+    void acquireUnderContention() throws Exception {
+        RateLimiter unlimited = new RateLimiter(Integer.MAX_VALUE, 1e9, 2 * USERS);
+        RateLimiter exhausted = new RateLimiter(1, 1e-3, 2 * USERS);
+        exhausted.tryAcquire(1L);
+
+        long hotKey = measure(i -> unlimited.tryAcquire(1L));
+        long spread = measure(i -> unlimited.tryAcquire(i % USERS));
+        long rejected = measure(i -> exhausted.tryAcquire(1L));
+
+        log.info("tryAcquire на {} потоках: один пользователь - {} нс, {} пользователей - {} нс, "
+                + "отказ - {} нс на вызов", THREADS, hotKey, USERS, spread, rejected);
+        assertThat(hotKey).isLessThan(5_000);
+        assertThat(spread).isLessThan(5_000);
+        assertThat(rejected).isLessThan(5_000);
+    }
+
+    // среднее время вызова (нс), пока все потоки одновременно выполняют call
+    private long measure(LongUnaryOperator call) throws Exception {
+        run(call, WARMUP);
+        return run(call, ITERATIONS);
+    }
+
+    private long run(LongUnaryOperator call, int iterations) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(THREADS + 1);
+        AtomicLong totalNanos = new AtomicLong();
+        AtomicLong sink = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long offset = (long) t * USERS / THREADS;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                long result = 0;
+                long begin = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    result += call.applyAsLong(offset + i);
+                }
+                totalNanos.addAndGet(System.nanoTime() - begin);
+                sink.addAndGet(result);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.await();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        log.debug("sink={}", sink.get());
+        return totalNanos.get() / ((long) THREADS * iterations);
+    }
+}
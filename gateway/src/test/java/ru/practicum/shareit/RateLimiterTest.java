@@ -0,0 +1,75 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.ratelimit.RateLimiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimiterTest {
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    void tryAcquire_allowsBurstThenReportsWaitUntilNextToken() {
+        RateLimiter limiter = new RateLimiter(3, 2, 100, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(1L));
+        }
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.tryAcquire(1L));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(499));
+        assertTrue(limiter.tryAcquire(1L) > 0);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(0, limiter.tryAcquire(1L));
+        assertTrue(limiter.tryAcquire(1L) > 0);
+    }
+
+    @Test
+    void tryAcquire_refillsUpToCapacityOnly() {
+        RateLimiter limiter = new RateLimiter(2, 10, 100, clock::get);
+        limiter.tryAcquire(1L);
+        limiter.tryAcquire(1L);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(0, limiter.tryAcquire(1L));
+        assertEquals(0, limiter.tryAcquire(1L));
+        assertTrue(limiter.tryAcquire(1L) > 0);
+    }
+
+    @Test
+    void tryAcquire_keepsSeparateBucketPerUser() {
+        RateLimiter limiter = new RateLimiter(1, 1, 100, clock::get);
+
+        assertEquals(0, limiter.tryAcquire(1L));
+        assertTrue(limiter.tryAcquire(1L) > 0);
+        assertEquals(0, limiter.tryAcquire(2L));
+    }
+
+    @Test
+    void tryAcquire_sharesOverflowBucketWhenFullUntilIdleBucketsExpire() {
+        RateLimiter limiter = new RateLimiter(1, 1, 2, clock::get);
+        limiter.tryAcquire(1L);
+        limiter.tryAcquire(2L);
+
+        assertEquals(0, limiter.tryAcquire(3L));
+        assertTrue(limiter.tryAcquire(4L) > 0);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        assertEquals(0, limiter.tryAcquire(5L));
+        assertTrue(limiter.tryAcquire(5L) > 0);
+        assertEquals(0, limiter.tryAcquire(6L));
+    }
+
+    @Test
+    void constructor_rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1, 100));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, 0, 100));
+    }
+}
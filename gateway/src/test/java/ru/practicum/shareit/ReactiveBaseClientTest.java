@@ -0,0 +1,208 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.CallRejectedException;
+import ru.practicum.shareit.client.ClientGuard;
+import ru.practicum.shareit.client.ClientGuardProperties;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ReactiveBaseClientTest {
+    private static final String BOOKINGS = "[{\"id\":1,\"status\":\"WAITING\"},{\"id\":2,\"status\":\"APPROVED\"}]";
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+
+    @Test
+    void get_passesServerBodyAndContentTypeThroughUnparsed() throws IOException {
+        TestClient client = client(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+                .body(BOOKINGS)
+                .build());
+
+        ResponseEntity<Object> response = client.getBookings(1L).block();
+
+        ClientRequest request = requests.get(0);
+        assertEquals(HttpMethod.GET, request.method());
+        assertEquals(URI.create("http://shareit-server/bookings?state=ALL"), request.url());
+        assertEquals("1", request.headers().getFirst("X-Sharer-User-Id"));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING));
+        assertArrayEquals(BOOKINGS.getBytes(StandardCharsets.UTF_8), read(response));
+    }
+
+    @Test
+    void get_passesServerErrorsThroughWithTheirBody() throws IOException {
+        String error = "{\"error\":\"Пользователь не найден\"}";
+        TestClient client = client(ClientResponse.create(HttpStatus.NOT_FOUND)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(error)
+                .build());
+
+        ResponseEntity<Object> response = client.getBookings(1L).block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertArrayEquals(error.getBytes(StandardCharsets.UTF_8), read(response));
+    }
+
+    @Test
+    void get_holdsGuardPermitUntilBodyIsRead() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ClientGuard guard = new ClientGuard("booking", new ClientGuardProperties().getDefaults(), meterRegistry);
+        WebClient web = WebClient.builder()
+                .baseUrl("http://shareit-server")
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK).body(BOOKINGS).build()))
+                .build();
+        TestClient client = new TestClient(web, guard);
+
+        ResponseEntity<Object> response = client.getBookings(1L).block();
+
+        assertEquals(1, meterRegistry.get("shareit.client.in-flight").gauge().value());
+        assertArrayEquals(BOOKINGS.getBytes(StandardCharsets.UTF_8), read(response));
+        assertEquals(0, meterRegistry.get("shareit.client.in-flight").gauge().value());
+    }
+
+    @Test
+    void get_releasesGuardPermitWhenBodyIsClosedUnread() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ClientGuard guard = new ClientGuard("booking", new ClientGuardProperties().getDefaults(), meterRegistry);
+        WebClient web = WebClient.builder()
+                .baseUrl("http://shareit-server")
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK).body(BOOKINGS).build()))
+                .build();
+        TestClient client = new TestClient(web, guard);
+
+        ResponseEntity<Object> response = client.getBookings(1L).block();
+        InputStreamResource body = assertInstanceOf(InputStreamResource.class, response.getBody());
+        body.getInputStream().close();
+
+        assertEquals(0, meterRegistry.get("shareit.client.in-flight").gauge().value());
+    }
+
+    @Test
+    void getBuffered_readsBodyIntoByteArray() {
+        TestClient client = client(ClientResponse.create(HttpStatus.OK).body(BOOKINGS).build());
+
+        ResponseEntity<Object> response = client.getBookingsBuffered(1L).block();
+
+        byte[] body = assertInstanceOf(byte[].class, response.getBody());
+        assertArrayEquals(BOOKINGS.getBytes(StandardCharsets.UTF_8), body);
+    }
+
+    @Test
+    void delete_returnsEmptyBodyAsIs() {
+        TestClient client = client(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_LENGTH, "0")
+                .build());
+
+        ResponseEntity<Object> response = client.deleteUser(3L).block();
+
+        assertEquals(HttpMethod.DELETE, requests.get(0).method());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void get_mapsUnavailableServerToResourceAccessException() {
+        WebClient web = WebClient.builder()
+                .baseUrl("http://shareit-server")
+                .exchangeFunction(request -> Mono.error(new WebClientRequestException(
+                        new ConnectException("Connection refused"), request.method(), request.url(),
+                        request.headers())))
+                .build();
+        TestClient client = new TestClient(web);
+
+        assertThrows(ResourceAccessException.class, () -> client.getBookings(1L).block());
+    }
+
+    @Test
+    void serverErrors_openCircuitAndLaterCallsFailFastWithoutRequest() {
+        ClientGuardProperties.Limits limits = new ClientGuardProperties().getDefaults();
+        limits.setWindowSize(2);
+        limits.setMinimumCalls(2);
+        ClientGuard guard = new ClientGuard("booking", limits, new SimpleMeterRegistry());
+        WebClient web = WebClient.builder()
+                .baseUrl("http://shareit-server")
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                })
+                .build();
+        TestClient client = new TestClient(web, guard);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, client.getBookings(1L).block().getStatusCode());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, client.getBookings(1L).block().getStatusCode());
+
+        assertThrows(CallRejectedException.class, () -> client.getBookings(1L).block());
+        assertEquals(2, requests.size());
+    }
+
+    private static byte[] read(ResponseEntity<Object> response) throws IOException {
+        InputStreamResource body = assertInstanceOf(InputStreamResource.class, response.getBody());
+        try (InputStream in = body.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private TestClient client(ClientResponse response) {
+        WebClient web = WebClient.builder()
+                .baseUrl("http://shareit-server")
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(response);
+                })
+                .build();
+        return new TestClient(web);
+    }
+
+    private static class TestClient extends ReactiveBaseClient {
+        TestClient(WebClient web) {
+            super(web);
+        }
+
+        TestClient(WebClient web, ClientGuard guard) {
+            super(web, guard);
+        }
+
+        Mono<ResponseEntity<Object>> getBookings(long userId) {
+            return get("/bookings?state={state}", userId, Map.of("state", "ALL"));
+        }
+
+        Mono<ResponseEntity<Object>> getBookingsBuffered(long userId) {
+            return getBuffered("/bookings?state={state}", userId, Map.of("state", "ALL"));
+        }
+
+        Mono<ResponseEntity<Object>> deleteUser(long userId) {
+            return delete("/users/" + userId);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.client.TtlCache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TtlCacheTest {
+    private final AtomicLong now = new AtomicLong();
+    private final TtlCache<String, String> cache = new TtlCache<>(Duration.ofNanos(100), 2, now::get);
+
+    @Test
+    void get_returnsValueUntilTtlExpires() {
+        cache.put("дре", "[\"Дрель\"]");
+
+        now.set(99);
+        assertEquals("[\"Дрель\"]", cache.get("дре"));
+        now.set(100);
+        assertNull(cache.get("дре"));
+    }
+
+    @Test
+    void put_evictsExpiredEntriesThenEverythingWhenFull() {
+        cache.put("a", "1");
+        now.set(50);
+        cache.put("b", "2");
+        now.set(120);
+        cache.put("c", "3");
+
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+        assertEquals("3", cache.get("c"));
+
+        cache.put("d", "4");
+
+        assertNull(cache.get("b"));
+        assertNull(cache.get("c"));
+        assertEquals("4", cache.get("d"));
+    }
+}
@@ -10,6 +10,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.UserClient;
 import ru.practicum.shareit.user.UserController;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -20,6 +22,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = UserController.class)
@@ -38,14 +41,17 @@ public class UserControllerTest {
         UserDto userDto = new UserDto(1L, "name", "mail@mail.m");
         String userJson = objectMapper.writeValueAsString(userDto);
         ResponseEntity<Object> response = new ResponseEntity<>(userJson, HttpStatus.OK);
-        when(userClient.postUser(any())).thenReturn(response);
-        String result = mockMvc.perform(
+        when(userClient.postUser(any())).thenReturn(Mono.just(response));
+        MvcResult mvcResult = mockMvc.perform(
                         post("/users")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(userDto))
                                 .characterEncoding(StandardCharsets.UTF_8)
                                 .accept(MediaType.APPLICATION_JSON)
                 )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String result = mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andReturn()
                 .getResponse()
@@ -58,7 +64,7 @@ public class UserControllerTest {
         UserDto userDto = new UserDto(1L, "name", "mail");
         String userJson = objectMapper.writeValueAsString(userDto);
         ResponseEntity<Object> response = new ResponseEntity<>(userJson, HttpStatus.OK);
-        when(userClient.postUser(any())).thenReturn(response);
+        when(userClient.postUser(any())).thenReturn(Mono.just(response));
         mockMvc.perform(
                         post("/users")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -73,7 +79,7 @@ public class UserControllerTest {
         verify(userClient, never()).postUser(any());
         userJson = objectMapper.writeValueAsString(new UserDto(null, "nameNew", null));
         response = new ResponseEntity<>(userJson, HttpStatus.OK);
-        when(userClient.postUser(any())).thenReturn(response);
+        when(userClient.postUser(any())).thenReturn(Mono.just(response));
         mockMvc.perform(
                         post("/users")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -94,14 +100,17 @@ public class UserControllerTest {
         UserDto userDtoUpdate = new UserDto(1L, "nameNew", "mail@mail.m");
         String userJson = objectMapper.writeValueAsString(userDtoUpdate);
         ResponseEntity<Object> response = new ResponseEntity<>(userJson, HttpStatus.OK);
-        when(userClient.patchUser(any(), anyLong())).thenReturn(response);
-        String result = mockMvc.perform(
+        when(userClient.patchUser(any(), anyLong())).thenReturn(Mono.just(response));
+        MvcResult mvcResult = mockMvc.perform(
                         patch("/users/{userId}", 1L)
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(userDto))
                                 .characterEncoding(StandardCharsets.UTF_8)
                                 .accept(MediaType.APPLICATION_JSON)
                 )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String result = mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andReturn()
                 .getResponse()
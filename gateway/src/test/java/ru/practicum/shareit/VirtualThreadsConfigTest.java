@@ -0,0 +1,48 @@
+package ru.practicum.shareit;
+
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import ru.practicum.shareit.config.VirtualThreadsConfig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class VirtualThreadsConfigTest {
+    private static final boolean VIRTUAL_THREADS = Runtime.version().feature() >= 21;
+
+    @Test
+    void olderJvm_failsFastInsteadOfFallingBackToPlatformThreads() {
+        assumeTrue(!VIRTUAL_THREADS);
+
+        assertThrows(IllegalStateException.class, () -> new VirtualThreadsConfig(""));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tomcatAndTaskExecutor_runOnVirtualThreads() throws Exception {
+        assumeTrue(VIRTUAL_THREADS);
+        VirtualThreadsConfig config = new VirtualThreadsConfig("");
+        Http11NioProtocol protocol = new Http11NioProtocol();
+
+        ((TomcatProtocolHandlerCustomizer<ProtocolHandler>) config.virtualThreadsProtocolHandlerCustomizer())
+                .customize(protocol);
+
+        assertTrue(isVirtual(runOn(protocol.getExecutor())));
+        assertTrue(isVirtual(runOn(config.applicationTaskExecutor())));
+        config.shutdown();
+    }
+
+    private static Thread runOn(Executor executor) throws Exception {
+        return CompletableFuture.supplyAsync(Thread::currentThread, executor).get();
+    }
+
+    private static boolean isVirtual(Thread thread) throws ReflectiveOperationException {
+        return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+}
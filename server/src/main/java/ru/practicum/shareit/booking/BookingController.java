@@ -1,20 +1,34 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBatchEntryDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.model.BookingCursor;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.util.HeaderConstants;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 public class BookingController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingDto addBooking(@RequestHeader(value = HeaderConstants.OWNER_ID) Long bookerId,
@@ -22,6 +36,12 @@ public class BookingController {
         return bookingService.addBooking(bookerId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> addBookings(@RequestHeader(value = HeaderConstants.OWNER_ID) Long userId,
+                                                   @RequestBody List<BookingBatchEntryDto> bookings) {
+        return bookingService.addBookings(userId, bookings);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto updateBooking(@RequestHeader(value = HeaderConstants.OWNER_ID) Long ownerId,
                                     @PathVariable Long bookingId,
@@ -39,7 +59,11 @@ public class BookingController {
     public List<BookingDto> getBooking(@RequestParam(defaultValue = "ALL") BookingState state,
                                        @RequestHeader(value = HeaderConstants.OWNER_ID) Long userId,
                                        @RequestParam(defaultValue = "0") Integer from,
-                                       @RequestParam(defaultValue = "10") Integer size) {
+                                       @RequestParam(defaultValue = "10") Integer size,
+                                       @RequestParam(required = false) String after) {
+        if (after != null) {
+            return bookingService.getBooking(state, userId, BookingCursor.parse(after), size);
+        }
         return bookingService.getBooking(state, userId, from, size);
     }
 
@@ -47,7 +71,62 @@ public class BookingController {
     public List<BookingDto> getOwnerBookedItemList(@RequestParam(defaultValue = "ALL") BookingState state,
                                                    @RequestHeader(value = HeaderConstants.OWNER_ID) Long userId,
                                                    @RequestParam(value = "size", defaultValue = "10") int size,
-                                                   @RequestParam(value = "from", defaultValue = "0") int from) {
+                                                   @RequestParam(value = "from", defaultValue = "0") int from,
+                                                   @RequestParam(required = false) String after) {
+        if (after != null) {
+            return bookingService.ownerItemsBookingLists(state, userId, BookingCursor.parse(after), size);
+        }
         return bookingService.ownerItemsBookingLists(state, userId, from, size);
     }
+
+    @GetMapping("/export")
+    public void exportBookings(@RequestParam(defaultValue = "ALL") BookingState state,
+                               @RequestHeader(value = HeaderConstants.OWNER_ID) Long userId,
+                               HttpServletResponse response) throws IOException {
+        JsonGenerator generator = ndjsonGenerator(response);
+        bookingService.exportBookings(state, userId, writeTo(generator, response));
+        finish(generator, response);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportOwnerBookings(@RequestParam(defaultValue = "ALL") BookingState state,
+                                    @RequestHeader(value = HeaderConstants.OWNER_ID) Long userId,
+                                    HttpServletResponse response) throws IOException {
+        JsonGenerator generator = ndjsonGenerator(response);
+        bookingService.exportOwnerBookings(state, userId, writeTo(generator, response));
+        finish(generator, response);
+    }
+
+    // генератор не закрывает поток ответа, а тип ответа задаётся при первой строке: если сервис упал
+    // до неё, ошибка уходит обычным JSON-ответом с кодом; пробел между корневыми значениями отключён -
+    // строки разделяет только перевод строки
+    private JsonGenerator ndjsonGenerator(HttpServletResponse response) throws IOException {
+        JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    // без сброса после каждой строки - в сеть уходят полные буферы генератора и контейнера
+    private Consumer<BookingDto> writeTo(JsonGenerator generator, HttpServletResponse response) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return booking -> {
+            if (response.getContentType() == null) {
+                response.setContentType(NDJSON);
+            }
+            try {
+                writer.writeValue(generator, booking);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static void finish(JsonGenerator generator, HttpServletResponse response) throws IOException {
+        if (response.getContentType() == null) {
+            response.setContentType(NDJSON);
+        }
+        generator.flush();
+    }
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Строка пакетного бронирования; бронирует всегда пользователь из заголовка
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingBatchEntryDto {
+    private Long itemId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
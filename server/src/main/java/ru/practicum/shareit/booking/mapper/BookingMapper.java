@@ -3,7 +3,11 @@ package ru.practicum.shareit.booking.mapper;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.ItemBookingInfoDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
 import java.util.List;
@@ -22,7 +26,19 @@ public class BookingMapper {
     }
 
 
-    public static List<BookingDto> toBookingDtoList(List<Booking> bookingList) {
+    public static BookingDto toBookingDto(BookingView booking) {
+        BookingDto dto = new BookingDto();
+        dto.setId(booking.getId());
+        dto.setBooker(new UserDto(booking.getBookerId(), booking.getBookerName(), booking.getBookerEmail()));
+        dto.setStart(booking.getStartDate());
+        dto.setEnd(booking.getEndDate());
+        dto.setItem(new ItemDto(booking.getItemId(), booking.getItemName(), booking.getItemDescription(),
+                booking.getItemAvailable(), booking.getItemRequestId()));
+        dto.setStatus(booking.getStatus());
+        return dto;
+    }
+
+    public static List<BookingDto> toBookingDtoList(List<BookingView> bookingList) {
         return bookingList.stream()
                 .map(BookingMapper::toBookingDto)
                 .collect(Collectors.toList());
@@ -32,6 +48,11 @@ public class BookingMapper {
         return new ItemBookingInfoDto(booking.getId(), booking.getBooker().getId(),
                 booking.getStart(), booking.getEnd());
     }
+
+    public static ItemBookingInfoDto toItemBookingInfoDto(ItemBookingView booking) {
+        return new ItemBookingInfoDto(booking.getId(), booking.getBookerId(),
+                booking.getStartDate(), booking.getEndDate());
+    }
 }
 
 
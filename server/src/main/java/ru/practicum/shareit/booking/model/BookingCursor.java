@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import ru.practicum.shareit.util.TimestampIdCursor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class BookingCursor {
+    private final LocalDateTime start;
+    private final Long id;
+
+    public static BookingCursor parse(String text) {
+        return TimestampIdCursor.parse(text, BookingCursor::new);
+    }
+
+    @Override
+    public String toString() {
+        return TimestampIdCursor.format(start, id);
+    }
+}
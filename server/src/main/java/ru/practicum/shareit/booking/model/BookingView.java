@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+// Строка списка бронирований: поля бронирования, вещи и арендатора одним запросом с join,
+// без загрузки и отслеживания сущностей
+public interface BookingView {
+    Long getId();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+
+    BookingStatus getStatus();
+
+    Long getItemId();
+
+    String getItemName();
+
+    String getItemDescription();
+
+    Boolean getItemAvailable();
+
+    Long getItemRequestId();
+
+    Long getBookerId();
+
+    String getBookerName();
+
+    String getBookerEmail();
+}
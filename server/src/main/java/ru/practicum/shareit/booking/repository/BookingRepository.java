@@ -1,76 +1,221 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    // списки бронирований читаются проекцией BookingView: одна выборка с join вещи и арендатора
+    String VIEW = "select b.id as id, b.start as startDate, b.end as endDate, b.status as status, " +
+            "i.id as itemId, i.name as itemName, i.description as itemDescription, " +
+            "i.isAvailable as itemAvailable, i.requestId as itemRequestId, " +
+            "u.id as bookerId, u.name as bookerName, u.email as bookerEmail " +
+            "from Booking b join b.item i join b.booker u ";
+
+    String NEWEST_FIRST = "order by b.start desc, b.id desc";
+
+    // keyset-условие: b.start <= :start позволяет начать просмотр индекса сразу с позиции курсора
+    String AFTER_CURSOR = "and b.start <= :start and (b.start < :start or b.id < :id) " + NEWEST_FIRST;
+
+    // getBooking и approve обращаются к вещи, её владельцу и арендатору - читаем их той же выборкой
+    @Override
+    @EntityGraph(attributePaths = {"item", "item.owner", "booker"})
+    Optional<Booking> findById(Long id);
+
     @Query("select b from Booking as b join User as u on b.booker = u.id " +
             "where b.item = ?1 and b.status = ?2 and u.id = ?3 and b.end < ?4")
     List<Booking> findBookingsByItem(Item item, BookingStatus status, Long idUser, LocalDateTime dateTime);
 
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = ?1 order by b.start desc ")
-    List<Booking> findByOwnerItems(@Param("owner") long ownerId, Pageable page);
-
-    @Query(nativeQuery = true, value = "select * from bookings b " +
-            "inner join items i on b.item_id = i.id " +
-            "where i.owner_id = :ownerId " +
-            "and :time between b.start_date and b.end_date " +
-            "order by b.start_date desc")
-    List<Booking> findCurrentBookingsOwner(Long ownerId, LocalDateTime time, Pageable page);
-
-    @Query(nativeQuery = true, value = "select * from bookings b " +
-            "inner join items i on b.item_id = i.id " +
-            "where i.owner_id = :ownerId " +
-            "and b.end_date < :time " +
-            "order by b.start_date desc")
-    List<Booking> findPastByOwner(Long ownerId, LocalDateTime time, Pageable page);
-
-    @Query(nativeQuery = true, value = "select * from bookings b " +
-            "inner join items i on b.item_id = i.id " +
-            "where i.owner_id = :ownerId " +
-            "and b.start_date > :time " +
-            "order by b.start_date desc")
-    List<Booking> findFutureByOwner(Long ownerId, LocalDateTime time, Pageable page);
-
-    @Query("SELECT b from Booking b " +
-            "where b.item.owner.id = ?1 " +
-            "AND b.status = ?2 " +
-            "order by b.start desc")
-    List<Booking> findByOwnerAndState(long userId, BookingStatus status, Pageable page);
-
-    List<Booking> findByBookerIdOrderByStartDesc(long id, Pageable page);
-
-    List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long id, BookingStatus status, Pageable page);
-
-    List<Booking> findByBookerIdAndEndAfterAndStartBeforeOrderByStartDesc(Long id,
-                                                                          LocalDateTime end,
-                                                                          LocalDateTime start,
-                                                                          Pageable page);
-
-    List<Booking> findByBookerIdAndEndBeforeOrderByStartDesc(Long id, LocalDateTime time,
-                                                             Pageable page);
-
-    List<Booking> findByBookerIdAndStartAfterOrderByStartDesc(Long id, LocalDateTime time,
-                                                              Pageable page);
-
-    List<Booking> findByBookerIdAndStartAfterAndStatusOrderByStartDesc(Long bookerId,
-                                                                       LocalDateTime start,
-                                                                       BookingStatus status,
+    @Query(VIEW + "where i.owner.id = ?1 " + NEWEST_FIRST)
+    List<BookingView> findByOwnerItems(long ownerId, Pageable page);
+
+    @Query(VIEW + "where i.owner.id = ?1 and b.start <= ?2 and b.end >= ?2 " + NEWEST_FIRST)
+    List<BookingView> findCurrentBookingsOwner(Long ownerId, LocalDateTime time, Pageable page);
+
+    @Query(VIEW + "where i.owner.id = ?1 and b.end < ?2 " + NEWEST_FIRST)
+    List<BookingView> findPastByOwner(Long ownerId, LocalDateTime time, Pageable page);
+
+    @Query(VIEW + "where i.owner.id = ?1 and b.start > ?2 " + NEWEST_FIRST)
+    List<BookingView> findFutureByOwner(Long ownerId, LocalDateTime time, Pageable page);
+
+    @Query(VIEW + "where i.owner.id = ?1 and b.status = ?2 " + NEWEST_FIRST)
+    List<BookingView> findByOwnerAndState(long userId, BookingStatus status, Pageable page);
+
+    // явный b.booker.id вместо производных запросов: Spring Data строит для них left join users
+    // с условием на присоединённой таблице, и база не может использовать индекс по bookings.booker_id
+    @Query(VIEW + "where b.booker.id = ?1 " + NEWEST_FIRST)
+    List<BookingView> findByBookerIdOrderByStartDescIdDesc(long id, Pageable page);
+
+    @Query(VIEW + "where b.booker.id = ?1 and b.status = ?2 " + NEWEST_FIRST)
+    List<BookingView> findByBookerIdAndStatusOrderByStartDescIdDesc(Long id, BookingStatus status, Pageable page);
+
+    @Query(VIEW + "where b.booker.id = ?1 and b.end > ?2 and b.start < ?3 " + NEWEST_FIRST)
+    List<BookingView> findByBookerIdAndEndAfterAndStartBeforeOrderByStartDescIdDesc(Long id,
+                                                                                    LocalDateTime end,
+                                                                                    LocalDateTime start,
+                                                                                    Pageable page);
+
+    @Query(VIEW + "where b.booker.id = ?1 and b.end < ?2 " + NEWEST_FIRST)
+    List<BookingView> findByBookerIdAndEndBeforeOrderByStartDescIdDesc(Long id, LocalDateTime time,
                                                                        Pageable page);
 
-    List<Booking> findByItemInAndStatus(List<Item> items, BookingStatus status, Sort created);
+    @Query(VIEW + "where b.booker.id = ?1 and b.start > ?2 " + NEWEST_FIRST)
+    List<BookingView> findByBookerIdAndStartAfterOrderByStartDescIdDesc(Long id, LocalDateTime time,
+                                                                        Pageable page);
+
+    @Query(VIEW + "where b.booker.id = ?1 and b.start > ?2 and b.status = ?3 " + NEWEST_FIRST)
+    List<BookingView> findByBookerIdAndStartAfterAndStatusOrderByStartDescIdDesc(Long bookerId,
+                                                                                 LocalDateTime start,
+                                                                                 BookingStatus status,
+                                                                                 Pageable page);
+
+    @Query(VIEW + "where b.booker.id = :bookerId " + AFTER_CURSOR)
+    List<BookingView> findByBookerAfter(Long bookerId, LocalDateTime start, Long id, Pageable page);
+
+    @Query(VIEW + "where b.booker.id = :bookerId and b.end > :now and b.start < :now " + AFTER_CURSOR)
+    List<BookingView> findCurrentByBookerAfter(Long bookerId, LocalDateTime now, LocalDateTime start, Long id,
+                                               Pageable page);
+
+    @Query(VIEW + "where b.booker.id = :bookerId and b.end < :now " + AFTER_CURSOR)
+    List<BookingView> findPastByBookerAfter(Long bookerId, LocalDateTime now, LocalDateTime start, Long id,
+                                            Pageable page);
+
+    @Query(VIEW + "where b.booker.id = :bookerId and b.start > :now " + AFTER_CURSOR)
+    List<BookingView> findFutureByBookerAfter(Long bookerId, LocalDateTime now, LocalDateTime start, Long id,
+                                              Pageable page);
+
+    @Query(VIEW + "where b.booker.id = :bookerId and b.start > :now and b.status = :status " + AFTER_CURSOR)
+    List<BookingView> findFutureByBookerAndStatusAfter(Long bookerId, LocalDateTime now, BookingStatus status,
+                                                       LocalDateTime start, Long id, Pageable page);
+
+    @Query(VIEW + "where b.booker.id = :bookerId and b.status = :status " + AFTER_CURSOR)
+    List<BookingView> findByBookerAndStatusAfter(Long bookerId, BookingStatus status, LocalDateTime start, Long id,
+                                                 Pageable page);
+
+    @Query(VIEW + "where i.owner.id = :ownerId " + AFTER_CURSOR)
+    List<BookingView> findByOwnerItemsAfter(Long ownerId, LocalDateTime start, Long id, Pageable page);
+
+    @Query(VIEW + "where i.owner.id = :ownerId and b.start <= :now and b.end >= :now " + AFTER_CURSOR)
+    List<BookingView> findCurrentByOwnerAfter(Long ownerId, LocalDateTime now, LocalDateTime start, Long id,
+                                              Pageable page);
+
+    @Query(VIEW + "where i.owner.id = :ownerId and b.end < :now " + AFTER_CURSOR)
+    List<BookingView> findPastByOwnerAfter(Long ownerId, LocalDateTime now, LocalDateTime start, Long id,
+                                           Pageable page);
+
+    @Query(VIEW + "where i.owner.id = :ownerId and b.start > :now " + AFTER_CURSOR)
+    List<BookingView> findFutureByOwnerAfter(Long ownerId, LocalDateTime now, LocalDateTime start, Long id,
+                                             Pageable page);
+
+    @Query(VIEW + "where i.owner.id = :ownerId and b.status = :status " + AFTER_CURSOR)
+    List<BookingView> findByOwnerAndStateAfter(Long ownerId, BookingStatus status, LocalDateTime start, Long id,
+                                               Pageable page);
+
+    // выгрузка всей истории: поток читается курсором JDBC порциями по EXPORT_FETCH_SIZE строк
+    // и работает только внутри транзакции; проекции не попадают в контекст персистентности
+    String EXPORT_FETCH_SIZE = "500";
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(VIEW + "where b.booker.id = ?1 " + NEWEST_FIRST)
+    Stream<BookingView> streamByBooker(Long bookerId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(VIEW + "where b.booker.id = ?1 and b.end > ?2 and b.start < ?2 " + NEWEST_FIRST)
+    Stream<BookingView> streamCurrentByBooker(Long bookerId, LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(VIEW + "where b.booker.id = ?1 and b.end < ?2 " + NEWEST_FIRST)
+    Stream<BookingView> streamPastByBooker(Long bookerId, LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(VIEW + "where b.booker.id = ?1 and b.start > ?2 " + NEWEST_FIRST)
+    Stream<BookingView> streamFutureByBooker(Long bookerId, LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(VIEW + "where b.booker.id = ?1 and b.start > ?2 and b.status = ?3 " + NEWEST_FIRST)
+    Stream<BookingView> streamFutureByBookerAndStatus(Long bookerId, LocalDateTime now, BookingStatus status);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(VIEW + "where b.booker.id = ?1 and b.status = ?2 " + NEWEST_FIRST)
+    Stream<BookingView> streamByBookerAndStatus(Long bookerId, BookingStatus status);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(VIEW + "where i.owner.id = ?1 " + NEWEST_FIRST)
+    Stream<BookingView> streamByOwnerItems(Long ownerId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(VIEW + "where i.owner.id = ?1 and b.start <= ?2 and b.end >= ?2 " + NEWEST_FIRST)
+    Stream<BookingView> streamCurrentByOwner(Long ownerId, LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(VIEW + "where i.owner.id = ?1 and b.end < ?2 " + NEWEST_FIRST)
+    Stream<BookingView> streamPastByOwner(Long ownerId, LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(VIEW + "where i.owner.id = ?1 and b.start > ?2 " + NEWEST_FIRST)
+    Stream<BookingView> streamFutureByOwner(Long ownerId, LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(VIEW + "where i.owner.id = ?1 and b.status = ?2 " + NEWEST_FIRST)
+    Stream<BookingView> streamByOwnerAndStatus(Long ownerId, BookingStatus status);
+
+    @Query("select b from Booking b where b.item.id = ?1 and b.status = ?2")
+    List<Booking> findByItemIdAndStatus(Long itemId, BookingStatus status);
+
+    @Query("select b.item.id, count(b.id) from Booking b where b.status = ?1 and b.start >= ?2 group by b.item.id")
+    List<Object[]> countByItemSince(BookingStatus status, LocalDateTime since);
+
+    // последнее начавшееся и ближайшее будущее подтверждённое бронирование каждой вещи:
+    // не больше двух строк на вещь, сколько бы бронирований у неё ни было
+    @Query(nativeQuery = true, value = "select * from (" +
+            "select l.id as id, l.item_id as itemId, l.booker_id as bookerId, " +
+            "l.start_date as startDate, l.end_date as endDate from (" +
+            "select b.id, b.item_id, b.booker_id, b.start_date, b.end_date, " +
+            "row_number() over (partition by b.item_id order by b.start_date desc, b.id desc) as position " +
+            "from bookings b where b.item_id in (:itemIds) and b.status = 'APPROVED' and b.start_date <= :time" +
+            ") l where l.position = 1 " +
+            "union all " +
+            "select n.id, n.item_id, n.booker_id, n.start_date, n.end_date from (" +
+            "select b.id, b.item_id, b.booker_id, b.start_date, b.end_date, " +
+            "row_number() over (partition by b.item_id order by b.start_date, b.id) as position " +
+            "from bookings b where b.item_id in (:itemIds) and b.status = 'APPROVED' and b.start_date > :time" +
+            ") n where n.position = 1" +
+            ") v order by v.startDate desc")
+    List<ItemBookingView> findLastAndNextApproved(@Param("itemIds") Collection<Long> itemIds,
+                                                  @Param("time") LocalDateTime time);
+
+    @Query("select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as startDate, " +
+            "b.end as endDate from Booking b where b.id in ?1 order by b.start desc")
+    List<ItemBookingView> findViewsByIdIn(Collection<Long> ids);
+
+    // брони вещей с заданным статусом, пересекающиеся с интервалом (from, to)
+    @Query("select b.id as id, b.item.id as itemId, b.booker.id as bookerId, b.start as startDate, " +
+            "b.end as endDate from Booking b where b.item.id in ?1 and b.status = ?2 and b.start < ?4 and b.end > ?3")
+    List<ItemBookingView> findOverlapping(Collection<Long> itemIds, BookingStatus status,
+                                          LocalDateTime from, LocalDateTime to);
+
+    Optional<Booking> findFirstByItemAndStatusAndStartBeforeOrderByStartDesc(Item item,
+                                                                            BookingStatus status,
+                                                                            LocalDateTime end);
 
 }
 
@@ -1,16 +1,22 @@
 package ru.practicum.shareit.booking.service;
 
 
+import ru.practicum.shareit.booking.dto.BookingBatchEntryDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.model.BookingCursor;
 import ru.practicum.shareit.booking.model.BookingState;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public interface BookingService {
     BookingDto addBooking(Long bookerId, BookingDtoShort bookingDto);
 
+    List<BookingBatchResultDto> addBookings(Long userId, List<BookingBatchEntryDto> bookings);
+
     BookingDto approve(Long ownerId, Long bookingId, boolean approved);
 
     BookingDto getBooking(Long bookerId, Long id);
@@ -18,5 +24,13 @@ public interface BookingService {
     List<BookingDto> getBooking(BookingState state, Long userId, int from, int size);
 
     List<BookingDto> ownerItemsBookingLists(BookingState state, Long ownerId, int from, int size);
+
+    List<BookingDto> getBooking(BookingState state, Long userId, BookingCursor after, int size);
+
+    List<BookingDto> ownerItemsBookingLists(BookingState state, Long ownerId, BookingCursor after, int size);
+
+    void exportBookings(BookingState state, Long userId, Consumer<BookingDto> sink);
+
+    void exportOwnerBookings(BookingState state, Long ownerId, Consumer<BookingDto> sink);
 }
 
@@ -6,24 +6,49 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchEntryDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.IncorrectEntityParameterException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.RequestFailedException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.service.ItemBookingReadModel;
+import ru.practicum.shareit.item.service.ItemDetailsCache;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserPresenceCache;
+import ru.practicum.shareit.util.AfterCommit;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 import static ru.practicum.shareit.booking.mapper.BookingMapper.toBookingDto;
 
 @Service
@@ -34,6 +59,11 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final ItemAvailabilityIndex availabilityIndex;
+    private final ItemSearchIndex searchIndex;
+    private final UserPresenceCache userPresence;
+    private final ItemDetailsCache itemDetailsCache;
+    private final ItemBookingReadModel itemBookingReadModel;
 
     @Transactional
     @Override
@@ -49,6 +79,7 @@ public class BookingServiceImpl implements BookingService {
         if (ownerId.equals(bookerId)) {
             throw new NotFoundException("Неверные параметры");
         }
+        checkItemIsFree(item, bookingDto.getStart(), bookingDto.getEnd());
 
         Booking booking = new Booking();
         User user = userRepository.findById(bookerId)
@@ -63,6 +94,42 @@ public class BookingServiceImpl implements BookingService {
         return toBookingDto(booking);
     }
 
+    // все строки бронирует пользователь из заголовка; вещи читаются одним запросом,
+    // пересечения с подтверждёнными бронями - одним запросом,
+    // принятые строки сохраняются одним JDBC-пакетом; ошибка в строке не отменяет остальные
+    @Transactional
+    @Override
+    public List<BookingBatchResultDto> addBookings(Long userId, List<BookingBatchEntryDto> bookings) {
+        User booker = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+        Map<Long, Item> items = itemRepository.findAllById(bookings.stream()
+                        .map(BookingBatchEntryDto::getItemId)
+                        .filter(Objects::nonNull)
+                        .collect(toSet()))
+                .stream()
+                .collect(toMap(Item::getId, identity()));
+        Map<Long, List<Interval>> occupied = approvedOverlapping(items.keySet(), bookings);
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookings.size()];
+        Map<Integer, Booking> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            BookingBatchEntryDto entry = bookings.get(i);
+            try {
+                Booking booking = newBooking(entry, items.get(entry.getItemId()), booker, occupied);
+                occupied.computeIfAbsent(booking.getItem().getId(), id -> new ArrayList<>())
+                        .add(new Interval(booking.getStart(), booking.getEnd()));
+                accepted.put(i, booking);
+            } catch (NotFoundException e) {
+                results[i] = BookingBatchResultDto.failed(i, e.getMessage());
+            } catch (IncorrectEntityParameterException e) {
+                results[i] = BookingBatchResultDto.failed(i, e.getParameter());
+            }
+        }
+        bookingRepository.saveAll(accepted.values());
+        accepted.forEach((index, booking) -> results[index] = BookingBatchResultDto.created(index, toBookingDto(booking)));
+        return Arrays.asList(results);
+    }
+
     @Transactional
     @Override
     public BookingDto approve(Long ownerId, Long bookingId, boolean approved) {
@@ -76,10 +143,23 @@ public class BookingServiceImpl implements BookingService {
         if (!BookingStatus.WAITING.equals(booking.getStatus())) {
             throw new RequestFailedException("Статус уже проставлен");
         }
+        if (approved) {
+            itemRepository.lockById(item.getId());
+            checkItemIsFree(item, booking.getStart(), booking.getEnd());
+        }
         BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
         booking.setStatus(status);
 
         bookingRepository.save(booking);
+        if (approved) {
+            Long itemId = item.getId();
+            LocalDateTime start = booking.getStart();
+            LocalDateTime end = booking.getEnd();
+            AfterCommit.run(() -> availabilityIndex.markOccupied(itemId, start, end));
+            AfterCommit.run(() -> searchIndex.recordBooking(itemId));
+            itemDetailsCache.invalidate(item.getId());
+            itemBookingReadModel.refresh(item.getId());
+        }
         return BookingMapper.toBookingDto(booking);
     }
 
@@ -96,40 +176,36 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDto> getBooking(BookingState state, Long userId, int from, int size) {
-        userRepository.findById(userId).orElseThrow(() -> {
-            throw new NotFoundException("Пользователь не найден");
-        });
+        checkUser(userId);
 //        BookingState stateFromText = BookingState.getStateFromText(state);
         Pageable page = PageRequest.of(from / size, size);
         LocalDateTime now = LocalDateTime.now();
         switch (state) {
             case ALL:
-                return BookingMapper.toBookingDtoList(bookingRepository.findByBookerIdOrderByStartDesc(userId, page));
+                return BookingMapper.toBookingDtoList(bookingRepository.findByBookerIdOrderByStartDescIdDesc(userId, page));
             case CURRENT:
                 return BookingMapper.toBookingDtoList(bookingRepository
-                        .findByBookerIdAndEndAfterAndStartBeforeOrderByStartDesc(userId, now, now, page));
+                        .findByBookerIdAndEndAfterAndStartBeforeOrderByStartDescIdDesc(userId, now, now, page));
             case PAST:
                 return BookingMapper.toBookingDtoList(bookingRepository
-                        .findByBookerIdAndEndBeforeOrderByStartDesc(userId, now, page));
+                        .findByBookerIdAndEndBeforeOrderByStartDescIdDesc(userId, now, page));
             case FUTURE:
                 return BookingMapper.toBookingDtoList(bookingRepository
-                        .findByBookerIdAndStartAfterOrderByStartDesc(userId, now, page));
+                        .findByBookerIdAndStartAfterOrderByStartDescIdDesc(userId, now, page));
             case WAITING:
                 return BookingMapper.toBookingDtoList(bookingRepository
-                        .findByBookerIdAndStartAfterAndStatusOrderByStartDesc(userId, now,
+                        .findByBookerIdAndStartAfterAndStatusOrderByStartDescIdDesc(userId, now,
                                 BookingStatus.WAITING, page));
             case REJECTED:
                 return BookingMapper.toBookingDtoList(bookingRepository
-                        .findByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED, page));
+                        .findByBookerIdAndStatusOrderByStartDescIdDesc(userId, BookingStatus.REJECTED, page));
         }
         throw new RequestFailedException(String.format("Unknown state: %s", state));
     }
 
     @Override
     public List<BookingDto> ownerItemsBookingLists(BookingState state, Long ownerId, int from, int size) {
-        userRepository.findById(ownerId).orElseThrow(() -> {
-            throw new NotFoundException("Пользователь не найден");
-        });
+        checkUser(ownerId);
 //        BookingState stateFromText = BookingState.getStateFromText(state);
         Pageable page = PageRequest.of(from / size, size);
         LocalDateTime now = LocalDateTime.now();
@@ -152,4 +228,192 @@ public class BookingServiceImpl implements BookingService {
         throw new RequestFailedException(String.format("Unknown state: %s", state));
     }
 
+    @Override
+    public List<BookingDto> getBooking(BookingState state, Long userId, BookingCursor after, int size) {
+        checkUser(userId);
+        Pageable page = PageRequest.of(0, size);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = after.getStart();
+        Long id = after.getId();
+        switch (state) {
+            case ALL:
+                return BookingMapper.toBookingDtoList(bookingRepository.findByBookerAfter(userId, start, id, page));
+            case CURRENT:
+                return BookingMapper.toBookingDtoList(bookingRepository
+                        .findCurrentByBookerAfter(userId, now, start, id, page));
+            case PAST:
+                return BookingMapper.toBookingDtoList(bookingRepository
+                        .findPastByBookerAfter(userId, now, start, id, page));
+            case FUTURE:
+                return BookingMapper.toBookingDtoList(bookingRepository
+                        .findFutureByBookerAfter(userId, now, start, id, page));
+            case WAITING:
+                return BookingMapper.toBookingDtoList(bookingRepository
+                        .findFutureByBookerAndStatusAfter(userId, now, BookingStatus.WAITING, start, id, page));
+            case REJECTED:
+                return BookingMapper.toBookingDtoList(bookingRepository
+                        .findByBookerAndStatusAfter(userId, BookingStatus.REJECTED, start, id, page));
+        }
+        throw new RequestFailedException(String.format("Unknown state: %s", state));
+    }
+
+    @Override
+    public List<BookingDto> ownerItemsBookingLists(BookingState state, Long ownerId, BookingCursor after, int size) {
+        checkUser(ownerId);
+        Pageable page = PageRequest.of(0, size);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = after.getStart();
+        Long id = after.getId();
+        switch (state) {
+            case ALL:
+                return BookingMapper.toBookingDtoList(bookingRepository.findByOwnerItemsAfter(ownerId, start, id, page));
+            case CURRENT:
+                return BookingMapper.toBookingDtoList(bookingRepository
+                        .findCurrentByOwnerAfter(ownerId, now, start, id, page));
+            case PAST:
+                return BookingMapper.toBookingDtoList(bookingRepository
+                        .findPastByOwnerAfter(ownerId, now, start, id, page));
+            case FUTURE:
+                return BookingMapper.toBookingDtoList(bookingRepository
+                        .findFutureByOwnerAfter(ownerId, now, start, id, page));
+            case WAITING:
+                return BookingMapper.toBookingDtoList(bookingRepository
+                        .findByOwnerAndStateAfter(ownerId, BookingStatus.WAITING, start, id, page));
+            case REJECTED:
+                return BookingMapper.toBookingDtoList(bookingRepository
+                        .findByOwnerAndStateAfter(ownerId, BookingStatus.REJECTED, start, id, page));
+        }
+        throw new RequestFailedException(String.format("Unknown state: %s", state));
+    }
+
+    // бронирования передаются в sink по одному, пока открыт курсор: память не зависит от длины истории
+    @Override
+    public void exportBookings(BookingState state, Long userId, Consumer<BookingDto> sink) {
+        checkUser(userId);
+        try (Stream<BookingView> bookings = bookerBookings(state, userId, LocalDateTime.now())) {
+            bookings.map(BookingMapper::toBookingDto).forEach(sink);
+        }
+    }
+
+    @Override
+    public void exportOwnerBookings(BookingState state, Long ownerId, Consumer<BookingDto> sink) {
+        checkUser(ownerId);
+        try (Stream<BookingView> bookings = ownerBookings(state, ownerId, LocalDateTime.now())) {
+            bookings.map(BookingMapper::toBookingDto).forEach(sink);
+        }
+    }
+
+    private Stream<BookingView> bookerBookings(BookingState state, Long userId, LocalDateTime now) {
+        switch (state) {
+            case ALL:
+                return bookingRepository.streamByBooker(userId);
+            case CURRENT:
+                return bookingRepository.streamCurrentByBooker(userId, now);
+            case PAST:
+                return bookingRepository.streamPastByBooker(userId, now);
+            case FUTURE:
+                return bookingRepository.streamFutureByBooker(userId, now);
+            case WAITING:
+                return bookingRepository.streamFutureByBookerAndStatus(userId, now, BookingStatus.WAITING);
+            case REJECTED:
+                return bookingRepository.streamByBookerAndStatus(userId, BookingStatus.REJECTED);
+        }
+        throw new RequestFailedException(String.format("Unknown state: %s", state));
+    }
+
+    private Stream<BookingView> ownerBookings(BookingState state, Long ownerId, LocalDateTime now) {
+        switch (state) {
+            case ALL:
+                return bookingRepository.streamByOwnerItems(ownerId);
+            case CURRENT:
+                return bookingRepository.streamCurrentByOwner(ownerId, now);
+            case PAST:
+                return bookingRepository.streamPastByOwner(ownerId, now);
+            case FUTURE:
+                return bookingRepository.streamFutureByOwner(ownerId, now);
+            case WAITING:
+                return bookingRepository.streamByOwnerAndStatus(ownerId, BookingStatus.WAITING);
+            case REJECTED:
+                return bookingRepository.streamByOwnerAndStatus(ownerId, BookingStatus.REJECTED);
+        }
+        throw new RequestFailedException(String.format("Unknown state: %s", state));
+    }
+
+    private void checkUser(Long userId) {
+        if (!userPresence.exists(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+    }
+
+    private Booking newBooking(BookingBatchEntryDto entry, Item item, User booker, Map<Long, List<Interval>> occupied) {
+        if (item == null) {
+            throw new NotFoundException("Вещи с таким id нет");
+        }
+        if (!item.getIsAvailable()) {
+            throw new IncorrectEntityParameterException("Вещь недоступна");
+        }
+        if (item.getOwner().getId().equals(booker.getId())) {
+            throw new NotFoundException("Неверные параметры");
+        }
+        LocalDateTime start = entry.getStart();
+        LocalDateTime end = entry.getEnd();
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new IncorrectEntityParameterException("Неверные даты бронирования");
+        }
+        boolean overlaps = occupied.getOrDefault(item.getId(), List.of()).stream()
+                .anyMatch(interval -> interval.start.isBefore(end) && interval.end.isAfter(start));
+        if (overlaps) {
+            throw new IncorrectEntityParameterException("Вещь уже забронирована на это время");
+        }
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(BookingStatus.WAITING);
+        return booking;
+    }
+
+    // подтверждённые брони этих вещей в пределах общего интервала пакета
+    private Map<Long, List<Interval>> approvedOverlapping(Set<Long> itemIds, List<BookingBatchEntryDto> bookings) {
+        Map<Long, List<Interval>> occupied = new HashMap<>();
+        Optional<LocalDateTime> from = bookings.stream()
+                .map(BookingBatchEntryDto::getStart)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder());
+        Optional<LocalDateTime> to = bookings.stream()
+                .map(BookingBatchEntryDto::getEnd)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder());
+        if (itemIds.isEmpty() || from.isEmpty() || to.isEmpty()) {
+            return occupied;
+        }
+        for (ItemBookingView booking : bookingRepository.findOverlapping(itemIds, BookingStatus.APPROVED,
+                from.get(), to.get())) {
+            occupied.computeIfAbsent(booking.getItemId(), id -> new ArrayList<>())
+                    .add(new Interval(booking.getStartDate(), booking.getEndDate()));
+        }
+        return occupied;
+    }
+
+    // подтверждённые брони одной вещи не пересекаются, поэтому достаточно проверить
+    // последнюю из начавшихся до end - это один поиск по индексу (item_id, status, start_date);
+    // при подтверждении строка вещи уже заблокирована, и параллельное подтверждение ждёт этой проверки
+    private void checkItemIsFree(Item item, LocalDateTime start, LocalDateTime end) {
+        bookingRepository.findFirstByItemAndStatusAndStartBeforeOrderByStartDesc(item, BookingStatus.APPROVED, end)
+                .filter(booking -> booking.getEnd().isAfter(start))
+                .ifPresent(booking -> {
+                    throw new IncorrectEntityParameterException("Вещь уже забронирована на это время");
+                });
+    }
+
+    private static final class Interval {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Interval(LocalDateTime start, LocalDateTime end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -31,6 +32,15 @@ public class ErrorHandler {
         return new ErrorResponse(exception.getMessage());
     }
 
+    // нарушение ограничения базы вызвано данными запроса (занятый email, ссылка на несуществующую запись);
+    // это ошибка клиента, и 500 на неё открывал бы автомат ClientGuard в шлюзе для всех пользователей
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleDataIntegrityViolationException(final DataIntegrityViolationException e) {
+        log.warn("409 {}", e.getMostSpecificCause().getMessage());
+        return new ErrorResponse("Данные противоречат уже сохранённым");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowable(Throwable throwable) {
@@ -1,13 +1,22 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.OutputItemDto;
+import ru.practicum.shareit.item.model.CommentCursor;
+import ru.practicum.shareit.item.model.ItemSort;
+import ru.practicum.shareit.item.service.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.util.HeaderConstants;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 
@@ -16,6 +25,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final ItemImporter itemImporter;
 
     @GetMapping()
     public List<OutputItemDto> getItems(@RequestHeader(value = HeaderConstants.OWNER_ID) Long ownerId,
@@ -30,11 +40,30 @@ public class ItemController {
         return itemService.getItem(id, userId);
     }
 
+    @GetMapping("/{id}/availability")
+    public List<AvailabilitySlotDto> getAvailability(@RequestHeader(value = HeaderConstants.OWNER_ID) Long userId,
+                                                     @PathVariable Long id,
+                                                     @RequestParam(required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam(required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(89);
+        return itemService.getAvailability(id, start, end);
+    }
+
     @GetMapping("/search")
     public List<ItemDto> getItems(@RequestHeader("X-Sharer-User-Id") long userId, @RequestParam(name = "text") String text,
                                   @RequestParam(defaultValue = "0") Integer from,
-                                  @RequestParam(defaultValue = "10") Integer size) {
-        return itemService.getItems(userId, text, from, size);
+                                  @RequestParam(defaultValue = "10") Integer size,
+                                  @RequestParam(required = false) ItemSort sort) {
+        return itemService.getItems(userId, text, from, size, sort);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam String prefix,
+                                @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.suggest(prefix, size);
     }
 
     @PostMapping()
@@ -43,6 +72,13 @@ public class ItemController {
         return itemService.addItem(ownerId, item);
     }
 
+    // тело - NDJSON, по одной ItemDto в строке; читается потоком, без привязки всего списка
+    @PostMapping("/import")
+    public ItemImportResultDto importItems(@RequestHeader(value = HeaderConstants.OWNER_ID) Long ownerId,
+                                           InputStream body) throws IOException {
+        return itemImporter.importItems(ownerId, body);
+    }
+
     @PatchMapping("/{id}")
     public ItemDto update(@RequestHeader(value = HeaderConstants.OWNER_ID) Long ownerId,
                           @PathVariable Long id,
@@ -50,6 +86,14 @@ public class ItemController {
         return itemService.update(ownerId, id, item);
     }
 
+    @GetMapping("/{id}/comments")
+    public List<CommentDto> getComments(@RequestHeader(value = HeaderConstants.OWNER_ID) Long userId,
+                                        @PathVariable Long id,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.getComments(id, cursor != null ? CommentCursor.parse(cursor) : null, size);
+    }
+
     @PostMapping("/{id}/comment")
     public CommentDto addComment(@RequestHeader(value = HeaderConstants.OWNER_ID) Long authorId,
                                  @PathVariable Long id,
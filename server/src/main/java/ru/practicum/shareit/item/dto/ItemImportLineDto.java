@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// Результат по строке импорта: line - номер строки во входном потоке, заполнено либо id, либо error
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemImportLineDto {
+    private int line;
+    private Long id;
+    private String error;
+
+    public static ItemImportLineDto created(int line, Long id) {
+        return new ItemImportLineDto(line, id, null);
+    }
+
+    public static ItemImportLineDto failed(int line, String error) {
+        return new ItemImportLineDto(line, null, error);
+    }
+}
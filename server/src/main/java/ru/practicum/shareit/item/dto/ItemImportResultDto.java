@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Итог импорта: числа принятых и отклонённых строк и отклонённые строки с причинами;
+// строк в errors не больше ItemImporter.MAX_REPORTED_ERRORS, поэтому failed может быть больше их числа
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemImportResultDto {
+    private int created;
+    private int failed;
+    private List<ItemImportLineDto> errors;
+}
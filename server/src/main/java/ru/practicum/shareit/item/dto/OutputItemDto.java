@@ -21,5 +21,6 @@ public class OutputItemDto {
     private final Long requestId;
     private final ItemBookingInfoDto lastBooking;
     private final ItemBookingInfoDto nextBooking;
+    private final Long commentsCount;
     private final List<CommentDto> comments;
 }
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.item.mapper;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.AuthorDto;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentView;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -15,6 +17,20 @@ public class CommentMapper {
                 comment.getCreated());
     }
 
+    public static CommentDto toCommentDto(CommentView comment) {
+        return new CommentDto(comment.getId(),
+                comment.getText(),
+                new AuthorDto(comment.getAuthorId(), comment.getAuthorName(), comment.getAuthorEmail()),
+                comment.getAuthorName(),
+                comment.getCreated());
+    }
+
+    public static List<CommentDto> toCommentDtoList(List<CommentView> commentList) {
+        return commentList.stream()
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList());
+    }
+
     public static List<CommentDto> commentDtoList(List<Comment> commentList) {
         return commentList.stream()
                 .map(CommentMapper::toCommentDto)
@@ -26,6 +26,7 @@ public class ItemMapper {
     }
 
     public static OutputItemDto toItemsDto(Item item, ItemBookingInfoDto lastBooking, ItemBookingInfoDto nextBooking, List<CommentDto> comments) {
-        return new OutputItemDto(item.getId(), item.getName(), item.getDescription(), item.getIsAvailable(), item.getRequestId(), lastBooking, nextBooking, comments);
+        return new OutputItemDto(item.getId(), item.getName(), item.getDescription(), item.getIsAvailable(), item.getRequestId(), lastBooking, nextBooking,
+                item.getCommentsCount(), comments);
     }
 }
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import ru.practicum.shareit.util.TimestampIdCursor;
+
+import java.time.LocalDateTime;
+
+// Позиция в ленте комментариев вещи: последний отданный комментарий в порядке (created desc, id desc)
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class CommentCursor {
+    private final LocalDateTime created;
+    private final Long id;
+
+    public static CommentCursor parse(String text) {
+        return TimestampIdCursor.parse(text, CommentCursor::new);
+    }
+
+    @Override
+    public String toString() {
+        return TimestampIdCursor.format(created, id);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+
+// Комментарий вместе с автором одной выборкой с join
+public interface CommentView {
+    Long getId();
+
+    String getText();
+
+    LocalDateTime getCreated();
+
+    Long getItemId();
+
+    Long getAuthorId();
+
+    String getAuthorName();
+
+    String getAuthorEmail();
+}
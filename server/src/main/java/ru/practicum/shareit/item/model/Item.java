@@ -15,7 +15,8 @@ import javax.persistence.*;
 @Builder
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
     @Column(nullable = false)
     private String name;
@@ -28,4 +29,11 @@ public class Item {
     @ManyToOne
     @JoinColumn(name = "owner_id")
     private User owner;
+    // счётчик меняется только атомарным update в ItemRepository, сохранение вещи его не перезаписывает
+    @Column(name = "comments_count", insertable = false, updatable = false)
+    private long commentsCount;
+
+    public Item(Long id, String name, String description, Boolean isAvailable, Long requestId, User owner) {
+        this(id, name, description, isAvailable, requestId, owner, 0);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// Предрасчитанные последнее и следующее подтверждённые бронирования вещи
+@AllArgsConstructor
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "item_booking_info")
+@Builder
+public class ItemBookingInfo {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+    // когда следующее бронирование начнётся, запись устареет
+    @Column(name = "next_start")
+    private LocalDateTime nextStart;
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.item.model;
+
+public enum ItemSort {
+    // Сначала лучшие совпадения по названию и описанию
+    RELEVANCE
+}
@@ -1,14 +1,37 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.CommentView;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
-    List<Comment> findByItemIn(List<Item> items, Sort created);
+    String VIEW = "select c.id as id, c.text as text, c.created as created, c.item.id as itemId, " +
+            "u.id as authorId, u.name as authorName, u.email as authorEmail " +
+            "from Comment c join c.author u ";
+
+    // не больше limit самых новых комментариев каждой вещи
+    @Query(nativeQuery = true, value = "select c.id as id, c.text as text, c.created as created, " +
+            "c.item_id as itemId, u.id as authorId, u.name as authorName, u.email as authorEmail from (" +
+            "select cm.id, cm.text, cm.item_id, cm.author_id, cm.created, " +
+            "row_number() over (partition by cm.item_id order by cm.created desc, cm.id desc) as position " +
+            "from comments cm where cm.item_id in (:itemIds)" +
+            ") c join users u on u.id = c.author_id where c.position <= :limit order by c.created desc, c.id desc")
+    List<CommentView> findNewestByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @Query(VIEW + "where c.item.id = ?1 order by c.created desc, c.id desc")
+    List<CommentView> findPageByItemId(Long itemId, Pageable page);
+
+    @Query(VIEW + "where c.item.id = :itemId and c.created <= :created and (c.created < :created or c.id < :id) " +
+            "order by c.created desc, c.id desc")
+    List<CommentView> findPageByItemIdAfter(@Param("itemId") Long itemId, @Param("created") LocalDateTime created,
+                                            @Param("id") Long id, Pageable page);
 }
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.item.model.ItemBookingInfo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemBookingInfoRepository extends JpaRepository<ItemBookingInfo, Long> {
+
+    List<ItemBookingInfo> findByNextStartLessThanEqual(LocalDateTime time, Pageable page);
+}
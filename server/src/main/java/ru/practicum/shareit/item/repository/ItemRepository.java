@@ -1,21 +1,62 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    // владелец загружается той же выборкой, а не отдельным запросом; сущность, а не ItemDto,
+    // потому что карточке владельца нужен ещё счётчик комментариев
+    @EntityGraph(attributePaths = "owner")
     List<Item> findByOwnerIdOrderById(Long userId, Pageable page);
 
-    List<Item> findByRequestId(Long requestId);
+    // владелец загружается той же выборкой, а не отдельным запросом на каждую вещь
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    List<Item> findAllById(Iterable<Long> ids);
 
-    List<Item> findByRequestIdIn(List<Long> requestIds);
+    // вещи для ответов на запросы и поиска: владелец не нужен, поэтому сразу в ItemDto без загрузки сущностей
+    String ITEM_DTO = "select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.isAvailable, " +
+            "i.requestId) from Item i ";
 
-    @Query(nativeQuery = true, value = "SELECT * FROM items WHERE is_available = true AND " +
-            "(upper(name) like upper(concat('%', ?1, '%')) OR upper(description) like upper(concat('%', ?1, '%')))")
-    List<Item> searchItems(String text, Pageable page);
+    String MATCHES_TEXT = "(upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "or upper(i.description) like upper(concat('%', ?1, '%'))) ";
+
+    @Query(ITEM_DTO + "where i.requestId = ?1")
+    List<ItemDto> findByRequestId(Long requestId);
+
+    @Query(ITEM_DTO + "where i.requestId in ?1")
+    List<ItemDto> findByRequestIdIn(List<Long> requestIds);
+
+    List<Item> findByIsAvailableTrueAndIdGreaterThanOrderById(Long id, Pageable page);
+
+    @Query(ITEM_DTO + "where i.isAvailable = true and " + MATCHES_TEXT)
+    List<ItemDto> searchItems(String text, Pageable page);
+
+    @Query(ITEM_DTO + "where i.isAvailable = true and " + MATCHES_TEXT +
+            "order by case when upper(i.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, i.id")
+    List<ItemDto> searchItemsNameFirst(String text, Pageable page);
+
+    @Query(nativeQuery = true, value = "SELECT name FROM items WHERE is_available = true AND " +
+            "upper(name) like upper(concat(?1, '%')) GROUP BY name ORDER BY count(*) DESC, name LIMIT ?2")
+    List<String> suggestNames(String prefix, int limit);
+
+    // SELECT ... FOR UPDATE: подтверждения броней одной вещи проверяют пересечения по очереди
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> lockById(Long itemId);
+
+    @Modifying
+    @Query("update Item i set i.commentsCount = i.commentsCount + 1 where i.id = ?1")
+    void incrementCommentsCount(Long itemId);
 }
@@ -0,0 +1,182 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Календари занятости вещей, ограниченные по числу. Календарь читается из базы вне блокировок кэша;
+// если за время чтения вещь из той же полосы отметили занятой, прочитанное могло устареть и не кэшируется.
+@Component
+@RequiredArgsConstructor
+public class ItemAvailabilityIndex {
+    private static final int MAXIMUM_SIZE = 10_000;
+    private static final int STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, DayCalendar> calendars = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+    // число отметок markOccupied по полосам id вещей
+    private final AtomicLongArray marks = new AtomicLongArray(STRIPES);
+
+    public boolean isLoaded(Long itemId) {
+        return calendars.getIfPresent(itemId) != null;
+    }
+
+    public List<AvailabilitySlotDto> getSlots(Long itemId, LocalDate from, LocalDate to) {
+        DayCalendar calendar = calendars.getIfPresent(itemId);
+        if (calendar == null) {
+            calendar = loadAndCache(itemId);
+        }
+        return calendar.slots(from.toEpochDay(), to.toEpochDay());
+    }
+
+    // сначала отметка, потом обновление: загрузка, положившая календарь после проверки отметок,
+    // либо увидит отметку и уберёт его, либо календарь будет обновлён здесь
+    public void markOccupied(Long itemId, LocalDateTime start, LocalDateTime end) {
+        marks.incrementAndGet(stripe(itemId));
+        calendars.asMap().computeIfPresent(itemId, (id, calendar) -> calendar.with(start, end));
+    }
+
+    private DayCalendar loadAndCache(Long itemId) {
+        int stripe = stripe(itemId);
+        long marksBefore = marks.get(stripe);
+        DayCalendar loaded = load(itemId);
+        if (marks.get(stripe) != marksBefore) {
+            return loaded;
+        }
+        DayCalendar cached = calendars.asMap().putIfAbsent(itemId, loaded);
+        if (cached != null) {
+            return cached;
+        }
+        if (marks.get(stripe) != marksBefore) {
+            calendars.asMap().remove(itemId, loaded);
+        }
+        return loaded;
+    }
+
+    private static int stripe(Long itemId) {
+        return Long.hashCode(itemId) & (STRIPES - 1);
+    }
+
+    private DayCalendar load(Long itemId) {
+        List<Booking> bookings = bookingRepository.findByItemIdAndStatus(itemId, BookingStatus.APPROVED);
+        long[][] ranges = new long[bookings.size()][];
+        int count = 0;
+        for (Booking booking : bookings) {
+            long[] range = DayCalendar.days(booking.getStart(), booking.getEnd());
+            if (range != null) {
+                ranges[count++] = range;
+            }
+        }
+        return DayCalendar.of(Arrays.copyOf(ranges, count));
+    }
+
+    // неизменяемый календарь: занятые дни - отсортированные непересекающиеся отрезки [starts[i], ends[i]]
+    // в днях от эпохи; память растёт с числом броней, а не с длиной периода между ними
+    static final class DayCalendar {
+        static final DayCalendar EMPTY = new DayCalendar(new long[0], new long[0]);
+
+        private final long[] starts;
+        private final long[] ends;
+
+        private DayCalendar(long[] starts, long[] ends) {
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        // дни брони [start, end): последним занят день, в который бронь ещё идёт
+        static long[] days(LocalDateTime start, LocalDateTime end) {
+            if (!end.isAfter(start)) {
+                return null;
+            }
+            return new long[]{start.toLocalDate().toEpochDay(), end.minusNanos(1).toLocalDate().toEpochDay()};
+        }
+
+        // сортировка и одно слияние соседних и пересекающихся отрезков
+        static DayCalendar of(long[][] ranges) {
+            Arrays.sort(ranges, Comparator.comparingLong(range -> range[0]));
+            long[] starts = new long[ranges.length];
+            long[] ends = new long[ranges.length];
+            int size = 0;
+            for (long[] range : ranges) {
+                if (size > 0 && range[0] <= ends[size - 1] + 1) {
+                    ends[size - 1] = Math.max(ends[size - 1], range[1]);
+                } else {
+                    starts[size] = range[0];
+                    ends[size] = range[1];
+                    size++;
+                }
+            }
+            return new DayCalendar(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+        }
+
+        // копия с новым отрезком: отрезки, которые он задевает, сливаются с ним
+        DayCalendar with(LocalDateTime start, LocalDateTime end) {
+            long[] range = days(start, end);
+            if (range == null) {
+                return this;
+            }
+            long newStart = range[0];
+            long newEnd = range[1];
+            int first = firstEndingFrom(newStart - 1);
+            int last = first;
+            while (last < starts.length && starts[last] <= newEnd + 1) {
+                newStart = Math.min(newStart, starts[last]);
+                newEnd = Math.max(newEnd, ends[last]);
+                last++;
+            }
+            int size = starts.length - (last - first) + 1;
+            long[] newStarts = new long[size];
+            long[] newEnds = new long[size];
+            System.arraycopy(starts, 0, newStarts, 0, first);
+            System.arraycopy(ends, 0, newEnds, 0, first);
+            newStarts[first] = newStart;
+            newEnds[first] = newEnd;
+            System.arraycopy(starts, last, newStarts, first + 1, starts.length - last);
+            System.arraycopy(ends, last, newEnds, first + 1, ends.length - last);
+            return new DayCalendar(newStarts, newEnds);
+        }
+
+        // обход только занятых отрезков внутри периода: свободные слоты - промежутки между ними
+        List<AvailabilitySlotDto> slots(long fromDay, long toDay) {
+            List<AvailabilitySlotDto> slots = new ArrayList<>();
+            long day = fromDay;
+            for (int i = firstEndingFrom(fromDay); i < starts.length && starts[i] <= toDay; i++) {
+                if (starts[i] > day) {
+                    slots.add(slot(day, starts[i] - 1, true));
+                }
+                long busyEnd = Math.min(ends[i], toDay);
+                slots.add(slot(Math.max(starts[i], day), busyEnd, false));
+                day = busyEnd + 1;
+            }
+            if (day <= toDay) {
+                slots.add(slot(day, toDay, true));
+            }
+            return slots;
+        }
+
+        // индекс первого отрезка, который кончается не раньше day
+        private int firstEndingFrom(long day) {
+            int position = Arrays.binarySearch(ends, day);
+            return position >= 0 ? position : -position - 1;
+        }
+
+        private static AvailabilitySlotDto slot(long fromDay, long toDay, boolean free) {
+            return new AvailabilitySlotDto(LocalDate.ofEpochDay(fromDay), LocalDate.ofEpochDay(toDay), free);
+        }
+    }
+}
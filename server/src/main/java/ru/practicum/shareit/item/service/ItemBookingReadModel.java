@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.ItemBookingInfoDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.ItemBookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingInfo;
+import ru.practicum.shareit.item.repository.ItemBookingInfoRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+// Таблица item_booking_info: по строке на вещь с подтверждёнными бронированиями. Обновляется при
+// подтверждении бронирования и по расписанию, когда начинается следующее бронирование.
+// Вещи без строки не имеют подтверждённых бронирований.
+@Component
+@RequiredArgsConstructor
+public class ItemBookingReadModel {
+    private static final int REFRESH_BATCH = 1000;
+
+    private final ItemBookingInfoRepository itemBookingInfoRepository;
+    private final BookingRepository bookingRepository;
+
+    public void refresh(Long itemId) {
+        refresh(itemId, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item-booking-info.refresh-delay-ms:60000}",
+            initialDelayString = "${shareit.item-booking-info.refresh-delay-ms:60000}")
+    @Transactional
+    public void refreshStale() {
+        LocalDateTime now = LocalDateTime.now();
+        for (ItemBookingInfo info : itemBookingInfoRepository.findByNextStartLessThanEqual(now,
+                PageRequest.of(0, REFRESH_BATCH))) {
+            refresh(info.getItemId(), now);
+        }
+    }
+
+    // последнее и следующее бронирование каждой вещи по убыванию начала; устаревшие строки,
+    // до которых ещё не дошло обновление по расписанию, считаются запросом с оконной функцией
+    public Map<Long, List<ItemBookingInfoDto>> findLastAndNext(List<Item> items, LocalDateTime now) {
+        Map<Long, ItemBookingInfo> infos = itemBookingInfoRepository.findAllById(items.stream()
+                        .map(Item::getId)
+                        .collect(toList()))
+                .stream()
+                .collect(toMap(ItemBookingInfo::getItemId, Function.identity()));
+        Set<Long> bookingIds = new HashSet<>();
+        List<Long> staleItemIds = new ArrayList<>();
+        for (Item item : items) {
+            ItemBookingInfo info = infos.get(item.getId());
+            if (info == null) {
+                continue;
+            }
+            if (info.getNextStart() != null && !info.getNextStart().isAfter(now)) {
+                staleItemIds.add(item.getId());
+                continue;
+            }
+            Optional.ofNullable(info.getLastBookingId()).ifPresent(bookingIds::add);
+            Optional.ofNullable(info.getNextBookingId()).ifPresent(bookingIds::add);
+        }
+        List<ItemBookingView> bookings = new ArrayList<>();
+        if (!bookingIds.isEmpty()) {
+            bookings.addAll(bookingRepository.findViewsByIdIn(bookingIds));
+        }
+        if (!staleItemIds.isEmpty()) {
+            bookings.addAll(bookingRepository.findLastAndNextApproved(staleItemIds, now));
+        }
+        return bookings.stream()
+                .sorted(Comparator.comparing(ItemBookingView::getStartDate).reversed())
+                .collect(groupingBy(ItemBookingView::getItemId,
+                        mapping(BookingMapper::toItemBookingInfoDto, toList())));
+    }
+
+    private void refresh(Long itemId, LocalDateTime now) {
+        List<ItemBookingView> bookings = bookingRepository.findLastAndNextApproved(List.of(itemId), now);
+        Optional<ItemBookingView> last = bookings.stream()
+                .filter(booking -> !booking.getStartDate().isAfter(now))
+                .findFirst();
+        Optional<ItemBookingView> next = bookings.stream()
+                .filter(booking -> booking.getStartDate().isAfter(now))
+                .findFirst();
+        itemBookingInfoRepository.save(new ItemBookingInfo(itemId,
+                last.map(ItemBookingView::getId).orElse(null),
+                next.map(ItemBookingView::getId).orElse(null),
+                next.map(ItemBookingView::getStartDate).orElse(null)));
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.Getter;
+import ru.practicum.shareit.booking.dto.ItemBookingInfoDto;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.OutputItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+// Не зависящая от пользователя часть карточки вещи: поля вещи, число комментариев с самыми новыми
+// из них и последнее с ближайшим подтверждённые бронирования по убыванию начала
+@Getter
+public final class ItemDetails {
+    // остальные комментарии отдаются постранично через GET /items/{id}/comments
+    public static final int NEWEST_COMMENTS = 10;
+
+    private final Long id;
+    private final Long ownerId;
+    private final String name;
+    private final String description;
+    private final Boolean available;
+    private final Long requestId;
+    private final Long commentsCount;
+    private final List<CommentDto> comments;
+    private final List<ItemBookingInfoDto> approvedBookings;
+
+    private ItemDetails(Item item, List<CommentDto> comments, List<ItemBookingInfoDto> approvedBookings) {
+        this.id = item.getId();
+        this.ownerId = item.getOwner().getId();
+        this.name = item.getName();
+        this.description = item.getDescription();
+        this.available = item.getIsAvailable();
+        this.requestId = item.getRequestId();
+        this.commentsCount = item.getCommentsCount();
+        this.comments = comments;
+        this.approvedBookings = approvedBookings;
+    }
+
+    public static ItemDetails of(Item item, List<CommentDto> comments, List<ItemBookingInfoDto> approvedBookings) {
+        return new ItemDetails(item, List.copyOf(comments), List.copyOf(approvedBookings));
+    }
+
+    // после начала ближайшего бронирования карточка устаревает
+    public Optional<LocalDateTime> nextBookingStart(LocalDateTime now) {
+        return approvedBookings.stream()
+                .map(ItemBookingInfoDto::getStart)
+                .filter(start -> start.isAfter(now))
+                .min(Comparator.naturalOrder());
+    }
+
+    // последнее и следующее бронирование видит только владелец
+    public OutputItemDto toOutputItemDto(Long viewerId, LocalDateTime now) {
+        if (!ownerId.equals(viewerId)) {
+            return new OutputItemDto(id, name, description, available, requestId, null, null, commentsCount, comments);
+        }
+
+        ItemBookingInfoDto lastBooking = approvedBookings.stream()
+                .filter(b -> !b.getStart().isAfter(now))
+                .findFirst()
+                .orElse(null);
+
+        ItemBookingInfoDto nextBooking = approvedBookings.stream()
+                .filter(b -> b.getStart().isAfter(now))
+                .reduce((a, b) -> a.getStart().isBefore(b.getStart()) ? a : b)
+                .orElse(null);
+
+        return new OutputItemDto(id, name, description, available, requestId, lastBooking, nextBooking,
+                commentsCount, comments);
+    }
+}
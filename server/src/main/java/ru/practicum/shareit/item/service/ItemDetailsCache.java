@@ -0,0 +1,112 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+// Кэш карточек вещей со сквозным чтением. Сбрасывается изменяющими вещь операциями;
+// внутри транзакции запись сбрасывается ещё раз после её завершения, чтобы параллельное
+// чтение не вернуло в кэш незакоммиченное состояние. Запись живёт не дольше, чем до начала
+// ближайшего бронирования: после него меняются последнее и следующее бронирования.
+@Component
+public class ItemDetailsCache {
+    private static final String NAME = "itemDetails";
+    private static final int MAXIMUM_SIZE = 10_000;
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final BookingRepository bookingRepository;
+    private final LoadingCache<Long, ItemDetails> cache;
+
+    public ItemDetailsCache(ItemRepository itemRepository, CommentRepository commentRepository,
+                            BookingRepository bookingRepository, MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.commentRepository = commentRepository;
+        this.bookingRepository = bookingRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfter(new UntilNextBooking())
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", NAME)
+                .register(meterRegistry);
+    }
+
+    public ItemDetails get(Long itemId) {
+        return cache.get(itemId);
+    }
+
+    public void invalidate(Long itemId) {
+        invalidateNowAndAfterTransaction(() -> cache.invalidate(itemId));
+    }
+
+    public void invalidateAll() {
+        invalidateNowAndAfterTransaction(cache::invalidateAll);
+    }
+
+    private void invalidateNowAndAfterTransaction(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private ItemDetails load(Long itemId) {
+        Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Предмет не найден"));
+        return ItemDetails.of(item,
+                CommentMapper.toCommentDtoList(commentRepository.findNewestByItemIds(List.of(itemId),
+                        ItemDetails.NEWEST_COMMENTS)),
+                bookingRepository.findLastAndNextApproved(List.of(itemId), LocalDateTime.now()).stream()
+                        .map(BookingMapper::toItemBookingInfoDto)
+                        .collect(toList()));
+    }
+
+    private static final class UntilNextBooking implements Expiry<Long, ItemDetails> {
+        @Override
+        public long expireAfterCreate(Long itemId, ItemDetails details, long currentTime) {
+            LocalDateTime now = LocalDateTime.now();
+            return details.nextBookingStart(now)
+                    .map(start -> Duration.between(now, start))
+                    .filter(untilStart -> untilStart.compareTo(EXPIRE_AFTER_WRITE) < 0)
+                    .orElse(EXPIRE_AFTER_WRITE)
+                    .toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long itemId, ItemDetails details, long currentTime, long currentDuration) {
+            return expireAfterCreate(itemId, details, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long itemId, ItemDetails details, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
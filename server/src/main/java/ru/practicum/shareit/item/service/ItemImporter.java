@@ -0,0 +1,161 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportLineDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Импорт вещей из NDJSON: поток читается построчно, в памяти держится только текущая пачка,
+// каждая пачка проверяется и сохраняется отдельной транзакцией через ItemService.importItems.
+// Принятые строки только считаются, а из ошибочных в ответ попадают первые MAX_REPORTED_ERRORS,
+// поэтому и отчёт не растёт с длиной потока. Строка длиннее MAX_LINE_LENGTH символов не собирается
+// целиком: её остаток пропускается, а сама строка попадает в ошибки.
+@Component
+@RequiredArgsConstructor
+public class ItemImporter {
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    // название и описание вещи вместе с запасом на экранирование в JSON
+    public static final int MAX_LINE_LENGTH = 16 * 1024;
+
+    private final ItemService itemService;
+    private final ObjectMapper objectMapper;
+
+    public ItemImportResultDto importItems(Long ownerId, InputStream body) throws IOException {
+        ObjectReader itemReader = objectMapper.readerFor(ItemDto.class);
+        Report report = new Report();
+        Map<Integer, ItemDto> chunk = new LinkedHashMap<>();
+        try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            LineReader lines = new LineReader(reader);
+            int lineNumber = 0;
+            String line;
+            while ((line = lines.next()) != null) {
+                lineNumber++;
+                if (lines.isTooLong()) {
+                    report.add(ItemImportLineDto.failed(lineNumber, "Строка длиннее " + MAX_LINE_LENGTH + " символов"));
+                    continue;
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.put(lineNumber, itemReader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    report.add(ItemImportLineDto.failed(lineNumber, "Некорректный JSON: " + e.getOriginalMessage()));
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    itemService.importItems(ownerId, chunk).forEach(report::add);
+                    chunk = new LinkedHashMap<>();
+                }
+            }
+        }
+        // последняя пачка отправляется даже пустой, чтобы неизвестный владелец всегда давал 404
+        itemService.importItems(ownerId, chunk).forEach(report::add);
+        return report.toResult();
+    }
+
+    // строки, разделённые \n или \r\n; от слишком длинной строки в памяти остаётся не больше MAX_LINE_LENGTH символов
+    private static final class LineReader {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean tooLong;
+
+        private LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        private String next() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean started = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(reader.read(buffer), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return started ? finish() : null;
+                    }
+                }
+                started = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                append(start, position);
+                if (position < limit) {
+                    position++;
+                    return finish();
+                }
+            }
+        }
+
+        private boolean isTooLong() {
+            return tooLong;
+        }
+
+        private void append(int start, int end) {
+            if (tooLong) {
+                return;
+            }
+            if (line.length() + end - start > MAX_LINE_LENGTH + 1) {
+                tooLong = true;
+                line.setLength(0);
+                return;
+            }
+            line.append(buffer, start, end - start);
+        }
+
+        // запас в один символ под \r перед \n
+        private String finish() {
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(--length);
+            }
+            if (length > MAX_LINE_LENGTH) {
+                tooLong = true;
+                line.setLength(0);
+            }
+            return line.toString();
+        }
+    }
+
+    private static final class Report {
+        private final List<ItemImportLineDto> errors = new ArrayList<>();
+        private int created;
+        private int failed;
+
+        private void add(ItemImportLineDto line) {
+            if (line.getError() == null) {
+                created++;
+                return;
+            }
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(line);
+            }
+        }
+
+        private ItemImportResultDto toResult() {
+            errors.sort(Comparator.comparingInt(ItemImportLineDto::getLine));
+            return new ItemImportResultDto(created, failed, errors);
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Инвертированный индекс триграмм и префиксное дерево названий доступных вещей. Пока индекс не построен,
+// и для запросов короче триграммы методы поиска возвращают Optional.empty(), и сервис ищет через ItemRepository.
+// Индекс живёт в памяти одного экземпляра сервера и видит только изменения, прошедшие через этот экземпляр:
+// при нескольких экземплярах вещи, созданные или изменённые на других, попадут в него лишь при перестроении
+// (rebuild, в том числе при старте), поэтому сервер рассчитан на запуск в одном экземпляре.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int REBUILD_BATCH = 1000;
+    private static final int MIN_QUERY_LENGTH = 3;
+    private static final int RECENT_BOOKING_DAYS = 30;
+    private static final double NAME_HIT = 3;
+    private static final double DESCRIPTION_HIT = 1;
+    private static final double EXACT_TOKEN = 2;
+    private static final double BOOKING_BOOST = 1;
+    // худший из отобранных результатов - в голове кучи
+    private static final Comparator<Scored> WORST_FIRST = Comparator.<Scored>comparingDouble(scored -> scored.score)
+            .thenComparing(scored -> scored.document.item.getId(), Comparator.reverseOrder());
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "item-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final NavigableMap<Long, Document> documents = new TreeMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private NameTrie names = new NameTrie();
+    // подтверждённые бронирования, начавшиеся за последние RECENT_BOOKING_DAYS дней на момент пересчёта
+    private Map<Long, Integer> recentBookings = new HashMap<>();
+    // бронирования, подтверждённые во время пересчёта: запрос к базе мог их не увидеть
+    private Map<Long, Integer> recordedDuringRecount;
+    // вещи, изменённые во время перестроения: их состояние в индексе новее прочитанного из базы
+    private final Set<Long> touchedDuringRebuild = new HashSet<>();
+    private boolean rebuilding;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuildExecutor.execute(this::rebuild);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+            documents.clear();
+            postings.clear();
+            names = new NameTrie();
+            touchedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        boolean built = false;
+        try {
+            long lastId = 0;
+            List<Item> batch;
+            do {
+                batch = itemRepository.findByIsAvailableTrueAndIdGreaterThanOrderById(lastId,
+                        PageRequest.of(0, REBUILD_BATCH));
+                lock.writeLock().lock();
+                try {
+                    for (Item item : batch) {
+                        if (!touchedDuringRebuild.contains(item.getId())) {
+                            add(ItemMapper.toItemDto(item));
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == REBUILD_BATCH);
+            recountRecentBookings();
+            built = true;
+        } catch (RuntimeException e) {
+            log.error("Не удалось построить поисковый индекс вещей, поиск идёт через базу", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                touchedDuringRebuild.clear();
+                ready = built;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            remove(item.getId());
+            if (Boolean.TRUE.equals(item.getIsAvailable())) {
+                add(ItemMapper.toItemDto(item));
+            }
+            if (rebuilding) {
+                touchedDuringRebuild.add(item.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void recordBooking(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            recentBookings.merge(itemId, 1, Integer::sum);
+            if (recordedDuringRecount != null) {
+                recordedDuringRecount.merge(itemId, 1, Integer::sum);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // счётчики только растут от recordBooking, поэтому периодически пересчитываются по базе,
+    // и бронирования, выпавшие из окна RECENT_BOOKING_DAYS, перестают поднимать вещь в выдаче
+    @Scheduled(fixedDelayString = "${shareit.item-search.recent-bookings-refresh-ms:3600000}",
+            initialDelayString = "${shareit.item-search.recent-bookings-refresh-ms:3600000}")
+    public void refreshRecentBookings() {
+        try {
+            recountRecentBookings();
+        } catch (RuntimeException e) {
+            log.error("Не удалось пересчитать недавние бронирования вещей, остаются прежние счётчики", e);
+        }
+    }
+
+    private synchronized void recountRecentBookings() {
+        lock.writeLock().lock();
+        try {
+            recordedDuringRecount = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<Long, Integer> counts = new HashMap<>();
+        try {
+            for (Object[] count : bookingRepository.countByItemSince(BookingStatus.APPROVED,
+                    LocalDateTime.now().minusDays(RECENT_BOOKING_DAYS))) {
+                counts.merge((Long) count[0], ((Long) count[1]).intValue(), Integer::sum);
+            }
+            lock.writeLock().lock();
+            try {
+                recordedDuringRecount.forEach((itemId, count) -> counts.merge(itemId, count, Integer::sum));
+                recentBookings = counts;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                recordedDuringRecount = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public Optional<List<ItemDto>> search(String text, long offset, int limit) {
+        if (!ready || text.length() < MIN_QUERY_LENGTH) {
+            return Optional.empty();
+        }
+        String query = text.toUpperCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            List<ItemDto> result = new ArrayList<>();
+            long skipped = 0;
+            for (long id : candidates(query)) {
+                Document document = documents.get(id);
+                if (document == null || !document.matches(query)) {
+                    continue;
+                }
+                if (skipped++ < offset) {
+                    continue;
+                }
+                result.add(document.item);
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<List<String>> suggest(String prefix, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return Optional.of(names.complete(prefix, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // отбор лучших offset + limit совпадений кучей ограниченного размера, без сортировки всех совпадений
+    public Optional<List<ItemDto>> searchByRelevance(String text, long offset, int limit) {
+        if (!ready || text.length() < MIN_QUERY_LENGTH) {
+            return Optional.empty();
+        }
+        String query = text.toUpperCase(Locale.ROOT);
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 1, offset + limit);
+        PriorityQueue<Scored> top = new PriorityQueue<>(Math.min(capacity, 1024) + 1, WORST_FIRST);
+        lock.readLock().lock();
+        try {
+            for (long id : candidates(query)) {
+                Document document = documents.get(id);
+                if (document == null || !document.matches(query)) {
+                    continue;
+                }
+                top.add(new Scored(document, score(document, query)));
+                if (top.size() > capacity) {
+                    top.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(WORST_FIRST.reversed());
+        List<ItemDto> result = new ArrayList<>();
+        for (int i = (int) Math.min(offset, ranked.size()); i < ranked.size(); i++) {
+            result.add(ranked.get(i).document.item);
+        }
+        return Optional.of(result);
+    }
+
+    private double score(Document document, String query) {
+        double score = 0;
+        if (document.name.contains(query)) {
+            score += NAME_HIT + (containsToken(document.name, query) ? EXACT_TOKEN : 0);
+        }
+        if (document.description.contains(query)) {
+            score += DESCRIPTION_HIT + (containsToken(document.description, query) ? EXACT_TOKEN / 2 : 0);
+        }
+        return score + BOOKING_BOOST * Math.log1p(recentBookings.getOrDefault(document.item.getId(), 0));
+    }
+
+    // запрос встречается в тексте как отдельное слово
+    static boolean containsToken(String text, String query) {
+        for (int from = text.indexOf(query); from >= 0; from = text.indexOf(query, from + 1)) {
+            int to = from + query.length();
+            if ((from == 0 || !Character.isLetterOrDigit(text.charAt(from - 1)))
+                    && (to == text.length() || !Character.isLetterOrDigit(text.charAt(to)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // кандидаты по возрастанию id; совпадение подстроки проверяется отдельно.
+    // Запрос не короче триграммы: короткие уходят в базу, а не перебирают весь каталог под блокировкой
+    private long[] candidates(String query) {
+        long[] grams = trigrams(query);
+        List<Postings> lists = new ArrayList<>();
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        Postings smallest = lists.get(0);
+        long[] result = new long[smallest.size];
+        int count = 0;
+        for (int i = 0; i < smallest.size; i++) {
+            long id = smallest.ids[i];
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                inAll = lists.get(j).contains(id);
+            }
+            if (inAll) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void add(ItemDto item) {
+        Document document = new Document(item);
+        documents.put(item.getId(), document);
+        names.add(item.getName());
+        for (long gram : document.trigrams()) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(item.getId());
+        }
+    }
+
+    private void remove(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        names.remove(document.item.getName());
+        for (long gram : document.trigrams()) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    // три символа UTF-16 упаковываются в один long
+    static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    private static final class Scored {
+        private final Document document;
+        private final double score;
+
+        private Scored(Document document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+    }
+
+    private static final class Document {
+        private final ItemDto item;
+        private final String name;
+        private final String description;
+
+        private Document(ItemDto item) {
+            this.item = item;
+            this.name = item.getName().toUpperCase(Locale.ROOT);
+            this.description = item.getDescription().toUpperCase(Locale.ROOT);
+        }
+
+        private boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        private long[] trigrams() {
+            return Arrays.stream(new long[][]{ItemSearchIndex.trigrams(name), ItemSearchIndex.trigrams(description)})
+                    .flatMapToLong(Arrays::stream)
+                    .distinct()
+                    .toArray();
+        }
+    }
+
+    // отсортированный список id вещей, содержащих триграмму
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size > 0 && ids[size - 1] < id) {
+                append(id);
+                return;
+            }
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            ensureCapacity();
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private void append(long id) {
+            ensureCapacity();
+            ids[size++] = id;
+        }
+
+        private boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        private boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportLineDto;
+import ru.practicum.shareit.item.model.CommentCursor;
+import ru.practicum.shareit.item.model.ItemSort;
 import ru.practicum.shareit.item.dto.OutputItemDto;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 public interface ItemService {
     ItemDto addItem(Long ownerId, ItemDto itemDto);
 
+    List<ItemImportLineDto> importItems(Long ownerId, Map<Integer, ItemDto> itemsByLine);
+
     ItemDto update(Long ownerId, Long itemId, ItemDto itemDto);
 
     OutputItemDto getItem(Long itemId, Long userId);
@@ -17,5 +25,13 @@ public interface ItemService {
 
     List<ItemDto> getItems(long userId, String text, int fom, int size);
 
+    List<ItemDto> getItems(long userId, String text, int from, int size, ItemSort sort);
+
+    List<String> suggest(String prefix, int size);
+
     CommentDto addComment(Long authorId, Long itemId, CommentDto commentDto);
+
+    List<CommentDto> getComments(Long itemId, CommentCursor after, int size);
+
+    List<AvailabilitySlotDto> getAvailability(Long itemId, LocalDate from, LocalDate to);
 }
@@ -3,48 +3,70 @@ package ru.practicum.shareit.item.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.ItemBookingInfoDto;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.IncorrectEntityParameterException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportLineDto;
 import ru.practicum.shareit.item.dto.OutputItemDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentCursor;
+import ru.practicum.shareit.item.model.CommentView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSort;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserPresenceCache;
+import ru.practicum.shareit.util.AfterCommit;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toList;
-import static org.springframework.data.domain.Sort.Direction.DESC;
+import static java.util.stream.Collectors.toSet;
 
 
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final int NAME_MAX_LENGTH = 255;
+    private static final int DESCRIPTION_MAX_LENGTH = 1000;
 
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemAvailabilityIndex availabilityIndex;
+    private final ItemSearchIndex searchIndex;
+    private final UserPresenceCache userPresence;
+    private final ItemDetailsCache itemDetailsCache;
+    private final ItemBookingReadModel itemBookingReadModel;
+    private final ItemRequestRepository itemRequestRepository;
 
     @Transactional
     @Override
@@ -67,10 +89,44 @@ public class ItemServiceImpl implements ItemService {
         Optional<User> user = userRepository.findById(ownerId);
         item.setOwner(user.get());
         Item newItem = itemRepository.save(item);
+        AfterCommit.run(() -> searchIndex.index(newItem));
 
         return ItemMapper.toItemDto(newItem);
     }
 
+    // строки с ошибками не мешают остальным: сохраняются только прошедшие проверку, одним saveAll;
+    // запросы, на которые ссылаются строки пачки, проверяются одним запросом
+    @Transactional
+    @Override
+    public List<ItemImportLineDto> importItems(Long ownerId, Map<Integer, ItemDto> itemsByLine) {
+        checkOwner(ownerId);
+        User owner = userRepository.getReferenceById(ownerId);
+        Set<Long> requestIds = itemsByLine.values().stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(toSet());
+        Set<Long> existingRequestIds = requestIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(itemRequestRepository.findExistingIds(requestIds));
+        List<ItemImportLineDto> results = new ArrayList<>();
+        Map<Integer, Item> accepted = new LinkedHashMap<>();
+        itemsByLine.forEach((line, itemDto) -> {
+            String error = validateImported(itemDto, existingRequestIds);
+            if (error != null) {
+                results.add(ItemImportLineDto.failed(line, error));
+                return;
+            }
+            Item item = ItemMapper.toItem(itemDto);
+            item.setOwner(owner);
+            accepted.put(line, item);
+        });
+        itemRepository.saveAll(accepted.values());
+        accepted.forEach((line, item) -> results.add(ItemImportLineDto.created(line, item.getId())));
+        AfterCommit.run(() -> accepted.values().forEach(searchIndex::index));
+        results.sort(Comparator.comparingInt(ItemImportLineDto::getLine));
+        return results;
+    }
+
 
     @Transactional
     @Override
@@ -91,6 +147,8 @@ public class ItemServiceImpl implements ItemService {
         item.setRequestId(item.getRequestId() != null ? item.getRequestId() : oldItem.getRequestId());
 
         Item newItem = itemRepository.save(item);
+        AfterCommit.run(() -> searchIndex.index(newItem));
+        itemDetailsCache.invalidate(itemId);
         return ItemMapper.toItemDto(newItem);
     }
 
@@ -108,7 +166,31 @@ public class ItemServiceImpl implements ItemService {
         if (text.isBlank()) {
             return Collections.emptyList();
         }
-        return ItemMapper.toItemDtoList(itemRepository.searchItems(text, page));
+        return searchIndex.search(text, page.getOffset(), size)
+                .orElseGet(() -> itemRepository.searchItems(text, page));
+    }
+
+    @Override
+    public List<ItemDto> getItems(long userId, String text, int from, int size, ItemSort sort) {
+        if (sort != ItemSort.RELEVANCE) {
+            return getItems(userId, text, from, size);
+        }
+        checkOwner(userId);
+        Pageable page = PageRequest.of(from / size, size);
+        if (text.isBlank()) {
+            return Collections.emptyList();
+        }
+        return searchIndex.searchByRelevance(text, page.getOffset(), size)
+                .orElseGet(() -> itemRepository.searchItemsNameFirst(text, page));
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int size) {
+        if (prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        return searchIndex.suggest(prefix, size)
+                .orElseGet(() -> itemRepository.suggestNames(prefix, size));
     }
 
     @Override
@@ -128,55 +210,89 @@ public class ItemServiceImpl implements ItemService {
         comment.setItem(item);
         comment.setText(commentDto.getText());
         Comment result = commentRepository.save(comment);
+        itemRepository.incrementCommentsCount(itemId);
+        itemDetailsCache.invalidate(itemId);
         CommentDto newComment = CommentMapper.toCommentDto(result);
         newComment.setAuthorName(user.getName());
         return newComment;
 
     }
 
+    @Override
+    public List<CommentDto> getComments(Long itemId, CommentCursor after, int size) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Предмет не найден");
+        }
+        Pageable page = PageRequest.of(0, size);
+        if (after == null) {
+            return CommentMapper.toCommentDtoList(commentRepository.findPageByItemId(itemId, page));
+        }
+        return CommentMapper.toCommentDtoList(commentRepository.findPageByItemIdAfter(itemId, after.getCreated(),
+                after.getId(), page));
+    }
+
     @Override
     public OutputItemDto getItem(Long itemId, Long userId) {
-        Item newItem = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Предмет не найден"));
-        return fillWithBookingInfo(List.of(newItem), userId).get(0);
+        return itemDetailsCache.get(itemId).toOutputItemDto(userId, LocalDateTime.now());
+    }
+
+    @Override
+    public List<AvailabilitySlotDto> getAvailability(Long itemId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IncorrectEntityParameterException("Дата окончания не может быть раньше даты начала");
+        }
+        if (to.isAfter(from.plusYears(1))) {
+            throw new IncorrectEntityParameterException("Период не может быть длиннее года");
+        }
+        if (!availabilityIndex.isLoaded(itemId) && !itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Предмет не найден");
+        }
+        return availabilityIndex.getSlots(itemId, from, to);
     }
 
     private List<OutputItemDto> fillWithBookingInfo(List<Item> items, Long userId) {
-        Map<Item, List<Comment>> comments = commentRepository.findByItemIn(items, Sort.by(DESC, "created"))
-                .stream()
-                .collect(groupingBy(Comment::getItem, toList()));
-        Map<Item, List<Booking>> bookings = bookingRepository.findByItemInAndStatus(items, BookingStatus.APPROVED, Sort.by(DESC, "start"))
+        Map<Long, List<CommentDto>> comments = commentRepository.findNewestByItemIds(items.stream()
+                        .map(Item::getId)
+                        .collect(toList()), ItemDetails.NEWEST_COMMENTS)
                 .stream()
-                .collect(groupingBy(Booking::getItem, toList()));
+                .collect(groupingBy(CommentView::getItemId, mapping(CommentMapper::toCommentDto, toList())));
         LocalDateTime now = LocalDateTime.now();
-        return items.stream().map(item -> addBookingAndComment(item, userId, comments.getOrDefault(item, List.of()),
-                        bookings.getOrDefault(item, List.of()), now))
+        Map<Long, List<ItemBookingInfoDto>> bookings = itemBookingReadModel.findLastAndNext(items, now);
+        return items.stream().map(item -> addBookingAndComment(item, userId, comments.getOrDefault(item.getId(), List.of()),
+                        bookings.getOrDefault(item.getId(), List.of()), now))
                 .collect(toList());
     }
 
-    public OutputItemDto addBookingAndComment(Item item, Long userId, List<Comment> comments, List<Booking> bookings, LocalDateTime now) {
-        if (!item.getOwner().getId().equals(userId)) {
-            return ItemMapper.toItemsDto(item, null, null, CommentMapper.commentDtoList(comments));
-        }
-
-        Booking lastBooking = bookings.stream()
-                .filter(b -> !b.getStart().isAfter(now))
-                .findFirst()
-                .orElse(null);
-
-        Booking nextBooking = bookings.stream()
-                .filter(b -> b.getStart().isAfter(now))
-                .reduce((a, b) -> a.getStart().isBefore(b.getStart()) ? a : b)
-                .orElse(null);
+    public OutputItemDto addBookingAndComment(Item item, Long userId, List<CommentDto> comments,
+                                              List<ItemBookingInfoDto> bookings, LocalDateTime now) {
+        return ItemDetails.of(item, comments, bookings).toOutputItemDto(userId, now);
+    }
 
-        ItemBookingInfoDto lastBookingDto = lastBooking != null
-                ? BookingMapper.toItemBookingInfoDto(lastBooking) : null;
-        ItemBookingInfoDto nextBookingDto = nextBooking != null
-                ? BookingMapper.toItemBookingInfoDto(nextBooking) : null;
-        return ItemMapper.toItemsDto(item, lastBookingDto, nextBookingDto, CommentMapper.commentDtoList(comments));
+    // те же ограничения, что у столбцов items, чтобы строка не сорвала сохранение всей пачки
+    private static String validateImported(ItemDto itemDto, Set<Long> existingRequestIds) {
+        if (itemDto.getName() == null || itemDto.getName().isBlank()) {
+            return "Название не может быть пустым";
+        }
+        if (itemDto.getName().length() > NAME_MAX_LENGTH) {
+            return "Название длиннее " + NAME_MAX_LENGTH + " символов";
+        }
+        if (itemDto.getDescription() == null || itemDto.getDescription().isBlank()) {
+            return "Описание не может быть пустым";
+        }
+        if (itemDto.getDescription().length() > DESCRIPTION_MAX_LENGTH) {
+            return "Описание длиннее " + DESCRIPTION_MAX_LENGTH + " символов";
+        }
+        if (itemDto.getAvailable() == null) {
+            return "Статус не может быть пустым";
+        }
+        if (itemDto.getRequestId() != null && !existingRequestIds.contains(itemDto.getRequestId())) {
+            return "Запрос с таким id не найден";
+        }
+        return null;
     }
 
     private void checkOwner(Long ownerId) {
-        if (!userRepository.existsById(ownerId)) {
+        if (!userPresence.exists(ownerId)) {
             throw new NotFoundException("Пользователь не найден");
         }
     }
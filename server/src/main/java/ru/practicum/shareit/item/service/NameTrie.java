@@ -0,0 +1,223 @@
+package ru.practicum.shareit.item.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// Префиксное дерево названий. Дети узла лежат в отсортированных массивах, а в узле хранится лучшее название
+// его поддерева: наибольшее число вещей и наименьший ключ при равенстве. По нему лучшие подсказки выбираются
+// без обхода всего поддерева. Не потокобезопасно: доступ охраняет ItemSearchIndex.
+final class NameTrie {
+    // узел сравнивается по лучшему названию своего поддерева, поэтому при равном весе раскрываются
+    // только узлы на пути к очередной подсказке, а названия с одинаковым весом идут по алфавиту
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.<Candidate>comparingInt(c -> -c.weight)
+            .thenComparing(c -> c.key)
+            .thenComparing(c -> !c.terminal);
+
+    private final Node root = new Node();
+
+    void add(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].childOrCreate(key.charAt(i));
+        }
+        Node node = path[key.length()];
+        node.count++;
+        node.key = key;
+        node.addDisplay(name);
+        for (int i = path.length - 1; i >= 0; i--) {
+            path[i].updateMax();
+        }
+    }
+
+    void remove(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node node = path[key.length()];
+        if (node.count == 0) {
+            return;
+        }
+        node.removeDisplay(name);
+        if (--node.count == 0) {
+            node.key = null;
+        }
+        node.updateMax();
+        for (int i = path.length - 1; i > 0; i--) {
+            if (path[i].count == 0 && path[i].size == 0) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+            }
+            path[i - 1].updateMax();
+        }
+    }
+
+    List<String> complete(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        complete(prefix, limit, result);
+        return result;
+    }
+
+    // подсказки добавляются в result; возвращается число раскрытых узлов
+    int complete(String prefix, int limit, List<String> result) {
+        Node node = root;
+        String key = prefix.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        int expanded = 0;
+        if (node == null || node.max == 0) {
+            return expanded;
+        }
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(BEST_FIRST);
+        queue.add(Candidate.subtree(node));
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.terminal) {
+                result.add(candidate.node.display);
+                continue;
+            }
+            expanded++;
+            Node current = candidate.node;
+            if (current.count > 0) {
+                queue.add(Candidate.name(current));
+            }
+            for (int i = 0; i < current.size; i++) {
+                queue.add(Candidate.subtree(current.children[i]));
+            }
+        }
+        return expanded;
+    }
+
+    private static final class Candidate {
+        private final Node node;
+        private final int weight;
+        private final String key;
+        private final boolean terminal;
+
+        private Candidate(Node node, int weight, String key, boolean terminal) {
+            this.node = node;
+            this.weight = weight;
+            this.key = key;
+            this.terminal = terminal;
+        }
+
+        private static Candidate name(Node node) {
+            return new Candidate(node, node.count, node.key, true);
+        }
+
+        private static Candidate subtree(Node node) {
+            return new Candidate(node, node.max, node.bestKey, false);
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int size;
+        // число доступных вещей с названием, заканчивающимся в этом узле
+        private int count;
+        private String key;
+        // написания названия с числом вещей; показывается самое частое, при равенстве - появившееся позже
+        private Map<String, Integer> displays;
+        private String display;
+        // вес и ключ лучшего названия в поддереве
+        private int max;
+        private String bestKey;
+
+        private void addDisplay(String name) {
+            if (displays == null) {
+                displays = new LinkedHashMap<>(2);
+            }
+            displays.merge(name, 1, Integer::sum);
+            updateDisplay();
+        }
+
+        private void removeDisplay(String name) {
+            if (displays == null) {
+                return;
+            }
+            displays.computeIfPresent(name, (display, count) -> count > 1 ? count - 1 : null);
+            if (displays.isEmpty()) {
+                displays = null;
+                display = null;
+            } else {
+                updateDisplay();
+            }
+        }
+
+        private void updateDisplay() {
+            int best = 0;
+            for (Map.Entry<String, Integer> entry : displays.entrySet()) {
+                if (entry.getValue() >= best) {
+                    best = entry.getValue();
+                    display = entry.getKey();
+                }
+            }
+        }
+
+        private Node child(char key) {
+            int position = Arrays.binarySearch(keys, 0, size, key);
+            return position >= 0 ? children[position] : null;
+        }
+
+        private Node childOrCreate(char key) {
+            int position = Arrays.binarySearch(keys, 0, size, key);
+            if (position >= 0) {
+                return children[position];
+            }
+            position = -position - 1;
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            System.arraycopy(children, position, children, position + 1, size - position);
+            Node child = new Node();
+            keys[position] = key;
+            children[position] = child;
+            size++;
+            return child;
+        }
+
+        private void removeChild(char key) {
+            int position = Arrays.binarySearch(keys, 0, size, key);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            System.arraycopy(children, position + 1, children, position, size - position - 1);
+            children[--size] = null;
+        }
+
+        private void updateMax() {
+            int value = count;
+            String best = key;
+            for (int i = 0; i < size; i++) {
+                Node child = children[i];
+                if (child.max > value || child.max == value && value > 0 && child.bestKey.compareTo(best) < 0) {
+                    value = child.max;
+                    best = child.bestKey;
+                }
+            }
+            max = value;
+            bestKey = best;
+        }
+    }
+}
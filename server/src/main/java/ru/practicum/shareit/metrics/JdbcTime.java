@@ -0,0 +1,17 @@
+package ru.practicum.shareit.metrics;
+
+// Суммарное время выполнения SQL текущим потоком; читается как разность до и после запроса
+public final class JdbcTime {
+    private static final ThreadLocal<long[]> NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private JdbcTime() {
+    }
+
+    static void add(long nanos) {
+        NANOS.get()[0] += nanos;
+    }
+
+    public static long currentNanos() {
+        return NANOS.get()[0];
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Фильтр регистрируется здесь, а не через @Component: срезы @WebMvcTest подхватывают фильтры, но без MeterRegistry
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public RequestTimingFilter requestTimingFilter(MeterRegistry meterRegistry) {
+        return new RequestTimingFilter(meterRegistry);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Разбивка времени запроса: сколько из общего времени ушло на выполнение SQL.
+// Остаток - маппинг, сериализация JSON и прочая работа приложения.
+@RequiredArgsConstructor
+public class RequestTimingFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long jdbcBefore = JdbcTime.currentNanos();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long total = System.nanoTime() - start;
+            long jdbc = JdbcTime.currentNanos() - jdbcBefore;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            timer(request.getMethod(), uri, "total").record(total, TimeUnit.NANOSECONDS);
+            timer(request.getMethod(), uri, "jdbc").record(jdbc, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String method, String uri, String phase) {
+        return Timer.builder("shareit.http.time")
+                .tag("method", method)
+                .tag("uri", uri)
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
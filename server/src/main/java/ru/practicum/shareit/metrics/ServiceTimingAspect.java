@@ -0,0 +1,48 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingState;
+
+// Таймеры с гистограммой на каждый публичный метод сервисов.
+// Для выборок бронирований добавляется тег state, чтобы CURRENT не смешивался с ALL.
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceTimingAspect {
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * ru.practicum.shareit.*.service.*ServiceImpl.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("shareit.service.time")
+                    .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("state", state(joinPoint.getArgs()))
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String state(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof BookingState) {
+                return ((BookingState) arg).name();
+            }
+        }
+        return "none";
+    }
+}
@@ -3,6 +3,8 @@ package ru.practicum.shareit.request.mapper;
 
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestView;
+import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
@@ -21,6 +23,16 @@ public class ItemRequestMapper {
     }
 
 
+    public static ItemRequestDto toItemRequestDto(ItemRequestView itemRequest) {
+        return new ItemRequestDto(
+                itemRequest.getId(),
+                itemRequest.getDescription(),
+                new UserDto(itemRequest.getRequestorId(), itemRequest.getRequestorName(),
+                        itemRequest.getRequestorEmail()),
+                itemRequest.getCreated(),
+                null);
+    }
+
     public static ItemRequest toItemRequest(ItemRequestDto itemRequestDto, User requestor) {
         return new ItemRequest(
                 itemRequestDto.getId(),
@@ -31,7 +43,7 @@ public class ItemRequestMapper {
     }
 
 
-    public static List<ItemRequestDto> toItemRequestDtoList(List<ItemRequest> itemRequestList) {
+    public static List<ItemRequestDto> toItemRequestDtoList(List<ItemRequestView> itemRequestList) {
         return itemRequestList.stream()
                 .map(ItemRequestMapper::toItemRequestDto)
                 .collect(Collectors.toList());
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request.model;
+
+import java.time.LocalDateTime;
+
+// Запрос вещи вместе с автором одной выборкой с join
+public interface ItemRequestView {
+    Long getId();
+
+    String getDescription();
+
+    LocalDateTime getCreated();
+
+    Long getRequestorId();
+
+    String getRequestorName();
+
+    String getRequestorEmail();
+}
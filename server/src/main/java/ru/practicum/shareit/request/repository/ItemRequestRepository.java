@@ -1,18 +1,30 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.request.model.ItemRequestView;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findByRequestorOrderByCreated(User requestor);
+    String VIEW = "select r.id as id, r.description as description, r.created as created, " +
+            "u.id as requestorId, u.name as requestorName, u.email as requestorEmail " +
+            "from ItemRequest r join r.requestor u ";
 
-    Page<ItemRequest> findAllByRequestorIdNot(long userId, Pageable pageable);
-}
+    @Query("select r.id from ItemRequest r where r.id in ?1")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Query(VIEW + "where r.id = ?1")
+    Optional<ItemRequestView> findViewById(Long id);
 
+    @Query(VIEW + "where r.requestor.id = ?1 order by r.created")
+    List<ItemRequestView> findByRequestorOrderByCreated(Long requestorId);
 
+    @Query(VIEW + "where r.requestor.id <> ?1 order by r.created desc")
+    List<ItemRequestView> findAllByRequestorIdNot(long userId, Pageable pageable);
+}
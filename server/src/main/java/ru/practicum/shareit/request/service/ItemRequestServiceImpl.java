@@ -2,19 +2,19 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
-import ru.practicum.shareit.item.mapper.ItemMapper;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestView;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserPresenceCache;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -31,6 +31,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRepository itemRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
+    private final UserPresenceCache userPresence;
 
     @Override
     @Transactional
@@ -47,24 +48,24 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ItemRequestDto getById(long userId, long id) {
-        if (!userRepository.existsById(userId)) {
+        if (!userPresence.exists(userId)) {
             throw new NotFoundException("Пользователь не найден");
         }
-        ItemRequest itemRequest = itemRequestRepository.findById(id)
+        ItemRequestView itemRequest = itemRequestRepository.findViewById(id)
                 .orElseThrow(() -> new NotFoundException("Запрос не найден"));
 
         ItemRequestDto itemRequestDto = ItemRequestMapper.toItemRequestDto(itemRequest);
-        List<Item> itemList = itemRepository.findByRequestId(itemRequestDto.getId());
-        itemRequestDto.setItems(ItemMapper.toItemDtoList(itemList));
+        itemRequestDto.setItems(itemRepository.findByRequestId(itemRequestDto.getId()));
 
         return itemRequestDto;
     }
 
     @Override
     public List<ItemRequestDto> getAllUserRequest(Long userId) {
-        User requestor = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-        List<ItemRequest> itemRequestList = itemRequestRepository.findByRequestorOrderByCreated(requestor);
+        if (!userPresence.exists(userId)) {
+            throw new NotFoundException("Пользователь не найден");
+        }
+        List<ItemRequestView> itemRequestList = itemRequestRepository.findByRequestorOrderByCreated(userId);
         List<ItemRequestDto> itemRequestDtoList = ItemRequestMapper.toItemRequestDtoList(itemRequestList);
         addItems(itemRequestDtoList);
 
@@ -73,17 +74,12 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestDto> getAllRequest(Long userId, Integer from, Integer size) {
-        if (!userRepository.existsById(userId)) {
+        if (!userPresence.exists(userId)) {
             throw new NotFoundException("Пользователь не найден");
         }
-        Sort sort = Sort.by(Sort.Direction.DESC, "created");
-        PageRequest pageRequest = PageRequest.of(from / size, size, sort);
-        List<ItemRequestDto> itemRequestDtoList = itemRequestRepository.findAllByRequestorIdNot(
-                        userId,
-                        pageRequest)
-                .stream()
-                .map(ItemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
+        PageRequest pageRequest = PageRequest.of(from / size, size);
+        List<ItemRequestDto> itemRequestDtoList = ItemRequestMapper.toItemRequestDtoList(
+                itemRequestRepository.findAllByRequestorIdNot(userId, pageRequest));
 
         addItems(itemRequestDtoList);
         return itemRequestDtoList;
@@ -91,10 +87,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private void addItems(List<ItemRequestDto> itemRequestDtoList) {
         List<Long> requestIds = itemRequestDtoList.stream().map(ItemRequestDto::getId).collect(Collectors.toList());
-        Map<Long, List<Item>> itemsByRequestId = itemRepository.findByRequestIdIn(requestIds).stream().collect(Collectors.groupingBy(Item::getRequestId));
-        itemRequestDtoList.forEach(requestDto -> {
-            List<Item> itemList = itemsByRequestId.getOrDefault(requestDto.getId(), Collections.emptyList());
-            requestDto.setItems(ItemMapper.toItemDtoList(itemList));
-        });
+        Map<Long, List<ItemDto>> itemsByRequestId = itemRepository.findByRequestIdIn(requestIds).stream().collect(Collectors.groupingBy(ItemDto::getRequestId));
+        itemRequestDtoList.forEach(requestDto ->
+                requestDto.setItems(itemsByRequestId.getOrDefault(requestDto.getId(), Collections.emptyList())));
     }
 }
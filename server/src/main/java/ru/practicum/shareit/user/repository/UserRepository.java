@@ -1,8 +1,14 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
+
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    @Query("select u.id from User u where u.id > ?1 order by u.id")
+    List<Long> findIdsAfter(Long id, Pageable page);
 }
@@ -0,0 +1,207 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.AfterCommit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Проверка существования пользователя без запроса к базе: фильтр Блума отвечает "точно нет",
+// ограниченный кэш известных id - "точно да", в базу идут только промахи.
+// Фильтр пополняется полным проходом по id пользователей при старте и затем по расписанию, поэтому
+// пользователь, созданный мимо этого экземпляра (другим экземпляром сервера или прямо в базе), попадает
+// в него со следующим проходом. Отрицательным ответам фильтра верим, только пока с начала последнего
+// завершённого прохода прошло не больше negatives-trusted-ms; до первого прохода и при отставших
+// проходах отрицательные ответы проверяются в базе.
+@Slf4j
+@Component
+public class UserPresenceCache {
+    private static final int EXPECTED_USERS = 1_000_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int KNOWN_IDS_LIMIT = 100_000;
+    private static final int SYNC_BATCH = 10_000;
+
+    private final UserRepository userRepository;
+    private final BloomFilter bloomFilter = new BloomFilter(EXPECTED_USERS, FALSE_POSITIVE_RATE);
+    private final Cache<Long, Boolean> knownIds = Caffeine.newBuilder()
+            .maximumSize(KNOWN_IDS_LIMIT)
+            .build();
+    // поколение удалений: id, прочитанный до удаления, не запоминается после него
+    private final AtomicLong removals = new AtomicLong();
+    private final long negativesTrustedNanos;
+    private final Counter bloomNegatives;
+    private final Counter cacheHits;
+    private final Counter misses;
+    private volatile boolean synced;
+    private volatile long syncStartedAt;
+
+    public UserPresenceCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                             @Value("${shareit.users.presence.negatives-trusted-ms:600000}") long negativesTrustedMs) {
+        this.userRepository = userRepository;
+        this.negativesTrustedNanos = TimeUnit.MILLISECONDS.toNanos(negativesTrustedMs);
+        this.bloomNegatives = lookups(meterRegistry, "bloom_negative");
+        this.cacheHits = lookups(meterRegistry, "cache_hit");
+        this.misses = lookups(meterRegistry, "miss");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        sync();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.users.presence.sync-ms:300000}",
+            initialDelayString = "${shareit.users.presence.sync-ms:300000}")
+    public void resync() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.error("Не удалось пройти по id пользователей, отрицательные ответы фильтра Блума "
+                    + "перестанут использоваться после истечения срока доверия", e);
+        }
+    }
+
+    public boolean exists(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        if (negativesTrusted() && !bloomFilter.mightContain(userId)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        if (knownIds.getIfPresent(userId) != null) {
+            cacheHits.increment();
+            return true;
+        }
+        misses.increment();
+        long generation = removals.get();
+        boolean exists = userRepository.existsById(userId);
+        if (exists) {
+            AfterCommit.run(() -> remember(userId, generation));
+        }
+        return exists;
+    }
+
+    // фильтр Блума пополняется сразу: лишний id в нём стоит только запроса к базе, а без него
+    // пользователь не нашёлся бы до конца своей же транзакции; известным id становится после фиксации
+    public void added(Long userId) {
+        bloomFilter.put(userId);
+        long generation = removals.get();
+        AfterCommit.run(() -> remember(userId, generation));
+    }
+
+    // из фильтра Блума удалить нельзя: удалённый id станет промахом и будет проверен в базе
+    public void removed(Long userId) {
+        AfterCommit.run(() -> {
+            removals.incrementAndGet();
+            knownIds.invalidate(userId);
+        });
+    }
+
+    // id, добавленные в базу после начала прохода, могут в него не попасть, поэтому срок доверия
+    // отсчитывается от начала прохода
+    private synchronized void sync() {
+        long startedAt = System.nanoTime();
+        long lastId = 0;
+        List<Long> batch;
+        do {
+            long generation = removals.get();
+            batch = userRepository.findIdsAfter(lastId, PageRequest.of(0, SYNC_BATCH));
+            for (Long id : batch) {
+                remember(id, generation);
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == SYNC_BATCH);
+        syncStartedAt = startedAt;
+        synced = true;
+    }
+
+    private boolean negativesTrusted() {
+        return synced && System.nanoTime() - syncStartedAt <= negativesTrustedNanos;
+    }
+
+    // удаление между проверкой поколения и записью увеличивает поколение до сброса id,
+    // поэтому повторная проверка после записи убирает то, что удаление могло не застать
+    private void remember(Long userId, long generation) {
+        bloomFilter.put(userId);
+        if (removals.get() != generation) {
+            return;
+        }
+        knownIds.put(userId, Boolean.TRUE);
+        if (removals.get() != generation) {
+            knownIds.invalidate(userId);
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("shareit.users.presence.lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+            this.bitCount = words.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void put(long value) {
+            long hash = mix(value);
+            int hash1 = (int) hash;
+            int hash2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(hash1 + i * hash2);
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                if ((words.get(word) & mask) == 0) {
+                    words.getAndAccumulate(word, mask, (current, update) -> current | update);
+                }
+            }
+        }
+
+        boolean mightContain(long value) {
+            long hash = mix(value);
+            int hash1 = (int) hash;
+            int hash2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(hash1 + i * hash2);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(int combinedHash) {
+            return (combinedHash < 0 ? ~combinedHash : combinedHash) % bitCount;
+        }
+
+        // финализатор splitmix64: последовательные id дают независимые хэши
+        private static long mix(long value) {
+            long z = value + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
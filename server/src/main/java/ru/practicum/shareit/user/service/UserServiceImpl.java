@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.service.ItemDetailsCache;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -17,12 +18,15 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final UserPresenceCache userPresence;
+    private final ItemDetailsCache itemDetailsCache;
 
     @Transactional
     @Override
     public UserDto addUser(UserDto userDto) {
         User user = UserMapper.toUserModel(userDto);
         User newUser = userRepository.save(user);
+        userPresence.added(newUser.getId());
         return UserMapper.toUserDto(newUser);
     }
 
@@ -31,6 +35,7 @@ public class UserServiceImpl implements UserService {
     public void deleteUser(Long userId) {
         if (userId != null) {
             userRepository.deleteById(userId);
+            userPresence.removed(userId);
         }
     }
 
@@ -41,6 +46,10 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new NotFoundException("пользователь не найден " + userDto.getId()));
 
         if (userDto.getName() != null && !(userDto.getName().isBlank())) {
+            if (!userDto.getName().equals(user.getName())) {
+                // имя автора хранится в закэшированных комментариях
+                itemDetailsCache.invalidateAll();
+            }
             user.setName(userDto.getName());
         }
         if (userDto.getEmail() != null && !(userDto.getEmail().isBlank())) {
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.util;
+
+import ru.practicum.shareit.exceptions.RequestFailedException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.function.BiFunction;
+
+// Текстовый курсор ленты "<timestamp>,<id>": время последней отданной записи и её id для равных времён
+public final class TimestampIdCursor {
+
+    private TimestampIdCursor() {
+    }
+
+    public static <T> T parse(String text, BiFunction<LocalDateTime, Long, T> cursor) {
+        int comma = text.lastIndexOf(',');
+        if (comma < 0) {
+            throw new RequestFailedException("Unknown cursor: " + text);
+        }
+        try {
+            return cursor.apply(LocalDateTime.parse(text.substring(0, comma).trim()),
+                    Long.parseLong(text.substring(comma + 1).trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new RequestFailedException("Unknown cursor: " + text);
+        }
+    }
+
+    public static String format(LocalDateTime timestamp, Long id) {
+        return timestamp + "," + id;
+    }
+}
@@ -0,0 +1,37 @@
+CREATE TABLE IF NOT EXISTS item_booking_info
+(
+    item_id         BIGINT NOT NULL,
+    last_booking_id BIGINT,
+    next_booking_id BIGINT,
+    next_start      TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_item_booking_info PRIMARY KEY (item_id),
+    CONSTRAINT fk_item_booking_info_item_id FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE,
+    CONSTRAINT fk_item_booking_info_last FOREIGN KEY (last_booking_id) REFERENCES bookings (id) ON DELETE SET NULL,
+    CONSTRAINT fk_item_booking_info_next FOREIGN KEY (next_booking_id) REFERENCES bookings (id) ON DELETE SET NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_item_booking_info_next_start ON item_booking_info (next_start);
+
+INSERT INTO item_booking_info (item_id, last_booking_id, next_booking_id, next_start)
+SELECT i.id,
+       (SELECT b.id
+        FROM bookings b
+        WHERE b.item_id = i.id
+          AND b.status = 'APPROVED'
+          AND b.start_date <= CURRENT_TIMESTAMP
+        ORDER BY b.start_date DESC, b.id DESC
+        LIMIT 1),
+       (SELECT b.id
+        FROM bookings b
+        WHERE b.item_id = i.id
+          AND b.status = 'APPROVED'
+          AND b.start_date > CURRENT_TIMESTAMP
+        ORDER BY b.start_date, b.id
+        LIMIT 1),
+       (SELECT min(b.start_date)
+        FROM bookings b
+        WHERE b.item_id = i.id
+          AND b.status = 'APPROVED'
+          AND b.start_date > CURRENT_TIMESTAMP)
+FROM items i
+WHERE EXISTS(SELECT 1 FROM bookings b WHERE b.item_id = i.id AND b.status = 'APPROVED');
@@ -0,0 +1,7 @@
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comments_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE items
+SET comments_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = items.id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_created_id ON comments (item_id, created DESC, id DESC);
+DROP INDEX IF EXISTS idx_comments_item_created;
@@ -0,0 +1,17 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Подключает к контексту подсчёт SQL-запросов и даёт тестам параметр StatementBudget
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(StatementBudgetExtension.class)
+@Import(StatementCountingPostProcessor.class)
+public @interface CountStatements {
+}
@@ -0,0 +1,172 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemBookingInfoRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Планы всех запросов репозиториев: новый запрос добавляется сюда вместе с индексом под него.
+// Полный просмотр таблицы намеренно допускают только searchItems/searchItemsNameFirst/suggestNames
+// (поиск по upper(name)), UserRepository.findAll, ItemRequestRepository.findAllByRequestorIdNot
+// и BookingRepository.countByItemSince (агрегация для поискового индекса) - в этот набор они не входят.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.QueryPlanTest$SqlCaptor")
+public class QueryPlanTest {
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final Pageable PAGE = PageRequest.of(1, 10);
+    private static final Item ITEM = Item.builder().id(1L).build();
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemBookingInfoRepository itemBookingInfoRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void bookerQueriesUseIndexes() {
+        assertNoFullScan(() -> bookingRepository.findByBookerIdOrderByStartDescIdDesc(1L, PAGE));
+        assertNoFullScan(() -> bookingRepository.findByBookerIdAndStatusOrderByStartDescIdDesc(1L,
+                BookingStatus.REJECTED, PAGE));
+        assertNoFullScan(() -> bookingRepository.findByBookerIdAndEndAfterAndStartBeforeOrderByStartDescIdDesc(1L,
+                NOW, NOW, PAGE));
+        assertNoFullScan(() -> bookingRepository.findByBookerIdAndEndBeforeOrderByStartDescIdDesc(1L, NOW, PAGE));
+        assertNoFullScan(() -> bookingRepository.findByBookerIdAndStartAfterOrderByStartDescIdDesc(1L, NOW, PAGE));
+        assertNoFullScan(() -> bookingRepository.findByBookerIdAndStartAfterAndStatusOrderByStartDescIdDesc(1L, NOW,
+                BookingStatus.WAITING, PAGE));
+        assertNoFullScan(() -> bookingRepository.findByBookerAfter(1L, NOW, 1L, PAGE));
+        assertNoFullScan(() -> bookingRepository.findCurrentByBookerAfter(1L, NOW, NOW, 1L, PAGE));
+        assertNoFullScan(() -> bookingRepository.findPastByBookerAfter(1L, NOW, NOW, 1L, PAGE));
+        assertNoFullScan(() -> bookingRepository.findFutureByBookerAfter(1L, NOW, NOW, 1L, PAGE));
+        assertNoFullScan(() -> bookingRepository.findFutureByBookerAndStatusAfter(1L, NOW, BookingStatus.WAITING,
+                NOW, 1L, PAGE));
+        assertNoFullScan(() -> bookingRepository.findByBookerAndStatusAfter(1L, BookingStatus.REJECTED, NOW, 1L,
+                PAGE));
+    }
+
+    @Test
+    void exportQueriesUseIndexes() {
+        assertNoFullScan(() -> bookingRepository.streamByBooker(1L).close());
+        assertNoFullScan(() -> bookingRepository.streamCurrentByBooker(1L, NOW).close());
+        assertNoFullScan(() -> bookingRepository.streamPastByBooker(1L, NOW).close());
+        assertNoFullScan(() -> bookingRepository.streamFutureByBooker(1L, NOW).close());
+        assertNoFullScan(() -> bookingRepository.streamFutureByBookerAndStatus(1L, NOW, BookingStatus.WAITING).close());
+        assertNoFullScan(() -> bookingRepository.streamByBookerAndStatus(1L, BookingStatus.REJECTED).close());
+        assertNoFullScan(() -> bookingRepository.streamByOwnerItems(1L).close());
+        assertNoFullScan(() -> bookingRepository.streamCurrentByOwner(1L, NOW).close());
+        assertNoFullScan(() -> bookingRepository.streamPastByOwner(1L, NOW).close());
+        assertNoFullScan(() -> bookingRepository.streamFutureByOwner(1L, NOW).close());
+        assertNoFullScan(() -> bookingRepository.streamByOwnerAndStatus(1L, BookingStatus.WAITING).close());
+    }
+
+    @Test
+    void ownerQueriesUseIndexes() {
+        assertNoFullScan(() -> bookingRepository.findByOwnerItems(1L, PAGE));
+        assertNoFullScan(() -> bookingRepository.findCurrentBookingsOwner(1L, NOW, PAGE));
+        assertNoFullScan(() -> bookingRepository.findPastByOwner(1L, NOW, PAGE));
+        assertNoFullScan(() -> bookingRepository.findFutureByOwner(1L, NOW, PAGE));
+        assertNoFullScan(() -> bookingRepository.findByOwnerAndState(1L, BookingStatus.WAITING, PAGE));
+        assertNoFullScan(() -> bookingRepository.findByOwnerItemsAfter(1L, NOW, 1L, PAGE));
+        assertNoFullScan(() -> bookingRepository.findCurrentByOwnerAfter(1L, NOW, NOW, 1L, PAGE));
+        assertNoFullScan(() -> bookingRepository.findPastByOwnerAfter(1L, NOW, NOW, 1L, PAGE));
+        assertNoFullScan(() -> bookingRepository.findFutureByOwnerAfter(1L, NOW, NOW, 1L, PAGE));
+        assertNoFullScan(() -> bookingRepository.findByOwnerAndStateAfter(1L, BookingStatus.WAITING, NOW, 1L, PAGE));
+    }
+
+    @Test
+    void itemBookingQueriesUseIndexes() {
+        assertNoFullScan(() -> bookingRepository.findBookingsByItem(ITEM, BookingStatus.APPROVED, 1L, NOW));
+        assertNoFullScan(() -> bookingRepository.findLastAndNextApproved(List.of(1L, 2L), NOW));
+        assertNoFullScan(() -> bookingRepository.findByItemIdAndStatus(1L, BookingStatus.APPROVED));
+        assertNoFullScan(() -> bookingRepository.findFirstByItemAndStatusAndStartBeforeOrderByStartDesc(ITEM,
+                BookingStatus.APPROVED, NOW));
+        assertNoFullScan(() -> bookingRepository.findById(1L));
+        assertNoFullScan(() -> bookingRepository.findViewsByIdIn(List.of(1L, 2L)));
+        assertNoFullScan(() -> bookingRepository.findOverlapping(List.of(1L, 2L), BookingStatus.APPROVED, NOW, NOW));
+        assertNoFullScan(() -> itemBookingInfoRepository.findAllById(List.of(1L, 2L)));
+        assertNoFullScan(() -> itemBookingInfoRepository.findByNextStartLessThanEqual(NOW, PAGE));
+    }
+
+    @Test
+    void itemQueriesUseIndexes() {
+        assertNoFullScan(() -> itemRepository.findByOwnerIdOrderById(1L, PAGE));
+        assertNoFullScan(() -> itemRepository.findByRequestId(1L));
+        assertNoFullScan(() -> itemRepository.findByRequestIdIn(List.of(1L, 2L)));
+        assertNoFullScan(() -> itemRepository.findByIsAvailableTrueAndIdGreaterThanOrderById(1L, PAGE));
+        assertNoFullScan(() -> itemRepository.findById(1L));
+        assertNoFullScan(() -> itemRepository.existsById(1L));
+        assertNoFullScan(() -> itemRepository.findAllById(List.of(1L, 2L)));
+        assertNoFullScan(() -> itemRepository.lockById(1L));
+        assertNoFullScan(() -> itemRepository.incrementCommentsCount(1L));
+        assertNoFullScan(() -> commentRepository.findNewestByItemIds(List.of(1L, 2L), 10));
+        assertNoFullScan(() -> commentRepository.findPageByItemId(1L, PAGE));
+        assertNoFullScan(() -> commentRepository.findPageByItemIdAfter(1L, NOW, 1L, PAGE));
+    }
+
+    @Test
+    void requestAndUserQueriesUseIndexes() {
+        assertNoFullScan(() -> itemRequestRepository.findByRequestorOrderByCreated(1L));
+        assertNoFullScan(() -> itemRequestRepository.findViewById(1L));
+        assertNoFullScan(() -> itemRequestRepository.findExistingIds(List.of(1L, 2L)));
+        assertNoFullScan(() -> userRepository.findById(1L));
+        assertNoFullScan(() -> userRepository.existsById(1L));
+        assertNoFullScan(() -> userRepository.findIdsAfter(1L, PAGE));
+    }
+
+    private void assertNoFullScan(Runnable query) {
+        SqlCaptor.STATEMENTS.clear();
+        query.run();
+        assertThat(SqlCaptor.STATEMENTS).isNotEmpty();
+        for (String sql : SqlCaptor.STATEMENTS) {
+            assertThat(explain(sql)).as(sql).doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    private String explain(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet plan = connection.prepareStatement("EXPLAIN " + sql).executeQuery()) {
+            plan.next();
+            return plan.getString(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class SqlCaptor implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit;
+
+import javax.sql.DataSource;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ограничение числа SQL-запросов на один вызов сервиса: ловит N+1 на ленивых связях
+public final class StatementBudget {
+    private static final ThreadLocal<int[]> STATEMENTS = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final DataSource dataSource;
+
+    StatementBudget(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    static void record() {
+        STATEMENTS.get()[0]++;
+    }
+
+    public <T> T expectAtMost(int max, Supplier<T> call) {
+        assertTrue(StatementCountingPostProcessor.isCounting(dataSource), "Подсчёт запросов не подключён: нужен @CountStatements");
+        int before = STATEMENTS.get()[0];
+        T result = call.get();
+        int executed = STATEMENTS.get()[0] - before;
+        assertTrue(executed <= max,
+                () -> String.format("Ожидалось не больше %d SQL-запросов, выполнено %d", max, executed));
+        return result;
+    }
+}
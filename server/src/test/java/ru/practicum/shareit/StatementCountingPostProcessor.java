@@ -0,0 +1,63 @@
+package ru.practicum.shareit;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+
+// Оборачивает DataSource: каждое подготовленное соединением выражение засчитывается
+// в StatementBudget текущего потока. Hibernate готовит отдельное выражение на каждый запрос.
+public class StatementCountingPostProcessor implements BeanPostProcessor {
+
+    // подключён ли подсчёт к DataSource именно этого контекста, а не к какому-то из поднятых раньше
+    static boolean isCounting(DataSource dataSource) {
+        return Proxy.isProxyClass(dataSource.getClass())
+                && Proxy.getInvocationHandler(dataSource) instanceof CountingDataSource;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                new CountingDataSource((DataSource) bean));
+    }
+
+    private final class CountingDataSource implements InvocationHandler {
+        private final DataSource dataSource;
+
+        private CountingDataSource(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = StatementCountingPostProcessor.invoke(dataSource, method, args);
+            return result instanceof Connection ? countingConnection((Connection) result) : result;
+        }
+    }
+
+    private Connection countingConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("prepare") || name.equals("createStatement")) {
+                        StatementBudget.record();
+                    }
+                    return invoke(connection, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Скорость вставки 100 000 броней с id из bookings_seq: без пакетов (размер пакета 1) и пакетами по 50.
+// В обычный прогон не входит: mvn test -Dtest=BookingBatchInsertBenchmark
+@Slf4j
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext
+public class BookingBatchInsertBenchmark {
+    private static final int ROWS = 100_000;
+    private static final int FLUSH_EVERY = 1_000;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void insertBookings() {
+        long[] ids = prepareItemAndBooker();
+
+        double rowByRow = insert(ids, 1);
+        double batched = insert(ids, 50);
+
+        log.info("Вставка {} броней: построчно {} строк/с, пакетами {} строк/с",
+                ROWS, Math.round(rowByRow), Math.round(batched));
+        assertThat(batched).isGreaterThan(rowByRow);
+    }
+
+    private long[] prepareItemAndBooker() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        User owner = new User(null, "Владелец", "owner@mail.ru");
+        User booker = new User(null, "Арендатор", "booker@mail.ru");
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        Item item = new Item(null, "Дрель", "Ударная", true, null, owner);
+        entityManager.persist(item);
+        entityManager.getTransaction().commit();
+        entityManager.close();
+        return new long[]{item.getId(), booker.getId()};
+    }
+
+    private double insert(long[] ids, int batchSize) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        LocalDateTime start = LocalDateTime.now().plusYears(1);
+        long began = System.nanoTime();
+        entityManager.getTransaction().begin();
+        for (int i = 0; i < ROWS; i++) {
+            Booking booking = new Booking();
+            booking.setItem(entityManager.getReference(Item.class, ids[0]));
+            booking.setBooker(entityManager.getReference(User.class, ids[1]));
+            booking.setStart(start.plusHours(i));
+            booking.setEnd(start.plusHours(i).plusMinutes(30));
+            booking.setStatus(BookingStatus.WAITING);
+            entityManager.persist(booking);
+            if ((i + 1) % FLUSH_EVERY == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.getTransaction().commit();
+        entityManager.close();
+        return ROWS / ((System.nanoTime() - began) / 1e9);
+    }
+}
@@ -9,16 +9,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingBatchEntryDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exceptions.IncorrectEntityParameterException;
+import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.util.HeaderConstants;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
@@ -140,4 +146,67 @@ public class BookingControllerTest {
                 .andExpect(result -> Assertions.assertNotNull(result.getResolvedException()));
     }
 
+    @Test
+    void getBookingsByCursor() throws Exception {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2222, 12, 12, 12, 12, 12), 7L);
+        when(bookingService.getBooking(BookingState.PAST, 1L, cursor, 5))
+                .thenReturn(List.of(bookingDto));
+        when(bookingService.ownerItemsBookingLists(BookingState.ALL, 1L, cursor, 10))
+                .thenReturn(List.of(bookingDto));
+
+        mvc.perform(get(BASE_PATH_BOOKINGS + "?state=PAST&size=5&after=2222-12-12T12:12:12,7")
+                        .header(HeaderConstants.OWNER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(List.of(bookingDto))));
+        mvc.perform(get(BASE_PATH_BOOKINGS + "/owner?after=2222-12-12T12:12:12,7")
+                        .header(HeaderConstants.OWNER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(List.of(bookingDto))));
+        mvc.perform(get(BASE_PATH_BOOKINGS + "/owner?after=yesterday")
+                        .header(HeaderConstants.OWNER_ID, 1L))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createBookingsBatch() throws Exception {
+        List<BookingBatchEntryDto> batch = List.of(
+                BookingBatchEntryDto.builder().itemId(1L).start(inputBookingDto.getStart())
+                        .end(inputBookingDto.getEnd()).build(),
+                BookingBatchEntryDto.builder().itemId(2L).start(inputBookingDto.getStart())
+                        .end(inputBookingDto.getEnd()).build());
+        List<BookingBatchResultDto> results = List.of(
+                BookingBatchResultDto.created(0, bookingDto),
+                BookingBatchResultDto.failed(1, "Вещь недоступна"));
+        when(bookingService.addBookings(1L, batch)).thenReturn(results);
+
+        mvc.perform(post(BASE_PATH_BOOKINGS + "/batch")
+                        .header(HeaderConstants.OWNER_ID, 1L)
+                        .content(mapper.writeValueAsString(batch))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(mapper.writeValueAsString(results)));
+    }
+
+    @Test
+    void exportBookings() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<BookingDto> sink = invocation.getArgument(2);
+            sink.accept(bookingDto);
+            sink.accept(bookingDto);
+            return null;
+        }).when(bookingService).exportBookings(eq(BookingState.PAST), eq(1L), any());
+        Mockito.doThrow(new NotFoundException("Пользователь не найден"))
+                .when(bookingService).exportOwnerBookings(eq(BookingState.ALL), eq(99L), any());
+        String line = mapper.writeValueAsString(bookingDto);
+
+        mvc.perform(get(BASE_PATH_BOOKINGS + "/export?state=PAST")
+                        .header(HeaderConstants.OWNER_ID, 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(line + "\n" + line + "\n"));
+        mvc.perform(get(BASE_PATH_BOOKINGS + "/owner/export")
+                        .header(HeaderConstants.OWNER_ID, 99L))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.BiPredicate;
+
+// Задержка проверки пересечения с подтверждёнными бронями, когда у вещи BOOKINGS броней:
+// поиск последней начавшейся до конца интервала (как в BookingServiceImpl) против чтения всех броней вещи.
+// Числа только печатаются. В обычный прогон не входит: mvn test -Dtest=BookingOverlapCheckBenchmark
+@Slf4j
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext
+public class BookingOverlapCheckBenchmark {
+    private static final int BOOKINGS = 50_000;
+    private static final int WARMUP = 200;
+    private static final int CHECKS = 2_000;
+    private static final int FULL_SCAN_CHECKS = 50;
+    private static final int FLUSH_EVERY = 1_000;
+    private static final LocalDateTime FIRST_START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void overlapCheckLatency() {
+        Item item = prepareItemWithBookings();
+        Random random = new Random(42);
+
+        BiPredicate<LocalDateTime, LocalDateTime> lastStartedBefore = (start, end) -> bookingRepository
+                .findFirstByItemAndStatusAndStartBeforeOrderByStartDesc(item, BookingStatus.APPROVED, end)
+                .filter(booking -> booking.getEnd().isAfter(start))
+                .isPresent();
+        BiPredicate<LocalDateTime, LocalDateTime> fullScan = (start, end) -> bookingRepository
+                .findByItemIdAndStatus(item.getId(), BookingStatus.APPROVED).stream()
+                .anyMatch(booking -> booking.getStart().isBefore(end) && booking.getEnd().isAfter(start));
+
+        measure(lastStartedBefore, random, WARMUP);
+        long[] indexed = measure(lastStartedBefore, random, CHECKS);
+        long[] scanned = measure(fullScan, random, FULL_SCAN_CHECKS);
+
+        log.info("Проверка пересечения при {} бронях вещи: последняя начавшаяся p50 {} мкс, p99 {} мкс; "
+                        + "все брони вещи p50 {} мкс, p99 {} мкс",
+                BOOKINGS, percentile(indexed, 50), percentile(indexed, 99),
+                percentile(scanned, 50), percentile(scanned, 99));
+    }
+
+    // брони по два часа с шагом в три часа: между ними остаются свободные окна
+    private Item prepareItemWithBookings() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.unwrap(Session.class).setJdbcBatchSize(50);
+        entityManager.getTransaction().begin();
+        User owner = new User(null, "Владелец", "overlap-owner@mail.ru");
+        User booker = new User(null, "Арендатор", "overlap-booker@mail.ru");
+        entityManager.persist(owner);
+        entityManager.persist(booker);
+        Item item = new Item(null, "Дрель", "Ударная", true, null, owner);
+        entityManager.persist(item);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Booking booking = new Booking();
+            booking.setItem(entityManager.getReference(Item.class, item.getId()));
+            booking.setBooker(entityManager.getReference(User.class, booker.getId()));
+            booking.setStart(FIRST_START.plusHours(3L * i));
+            booking.setEnd(FIRST_START.plusHours(3L * i + 2));
+            booking.setStatus(BookingStatus.APPROVED);
+            entityManager.persist(booking);
+            if ((i + 1) % FLUSH_EVERY == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.getTransaction().commit();
+        entityManager.close();
+        return item;
+    }
+
+    // случайные часовые интервалы по всему диапазону броней, примерно половина из них пересекается
+    private long[] measure(BiPredicate<LocalDateTime, LocalDateTime> check, Random random, int count) {
+        long[] micros = new long[count];
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = FIRST_START.plusMinutes(random.nextInt(BOOKINGS * 3 * 60));
+            long began = System.nanoTime();
+            check.test(start, start.plusHours(1));
+            micros[i] = (System.nanoTime() - began) / 1_000;
+        }
+        return micros;
+    }
+
+    private static long percentile(long[] values, int percent) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+}
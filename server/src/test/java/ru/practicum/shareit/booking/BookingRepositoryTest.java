@@ -6,15 +6,18 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemBookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
@@ -99,17 +102,13 @@ public class BookingRepositoryTest {
         entityManager.persist(makeBooking(null, now.minusDays(1), now.plusDays(1), item1, booker, BookingStatus.WAITING));
         entityManager.persist(makeBooking(null, now.plusDays(1), now.plusDays(2), item2, booker, BookingStatus.WAITING));
 
-        Sort sort = Sort.by("start_date").descending();
-        Pageable pageable = PageRequest.of(0, 20, sort);
-        List<Booking> listBookings = bookingRepository.findCurrentBookingsOwner(owner.getId(), LocalDateTime.now(), pageable);
+        Pageable pageable = PageRequest.of(0, 20);
+        List<BookingView> listBookings = bookingRepository.findCurrentBookingsOwner(owner.getId(), LocalDateTime.now(), pageable);
 
         assertThat(listBookings)
                 .hasSize(1)
                 .element(0)
-                .hasFieldOrProperty("item");
-        assertThat(listBookings.get(0).getItem())
-                .isInstanceOf(Item.class)
-                .hasFieldOrPropertyWithValue("name", "Итем");
+                .hasFieldOrPropertyWithValue("itemName", "Итем");
     }
 
     @Test
@@ -122,17 +121,13 @@ public class BookingRepositoryTest {
         entityManager.persist(makeBooking(null, now.minusDays(2), now.minusDays(1), item1, owner1, BookingStatus.WAITING));
         entityManager.persist(makeBooking(null, now.minusDays(3), now.minusDays(2), item2, owner2, BookingStatus.WAITING));
 
-        Sort sort = Sort.by("end_date").descending();
-        Pageable pageable = PageRequest.of(0, 20, sort);
-        List<Booking> listBookings = bookingRepository.findPastByOwner(owner1.getId(), LocalDateTime.now(), pageable);
+        Pageable pageable = PageRequest.of(0, 20);
+        List<BookingView> listBookings = bookingRepository.findPastByOwner(owner1.getId(), LocalDateTime.now(), pageable);
 
         assertThat(listBookings)
                 .hasSize(1)
                 .element(0)
-                .hasFieldOrProperty("item");
-        assertThat(listBookings.get(0).getItem())
-                .isInstanceOf(Item.class)
-                .hasFieldOrPropertyWithValue("name", "Итем1");
+                .hasFieldOrPropertyWithValue("itemName", "Итем1");
     }
 
     @Test
@@ -145,18 +140,60 @@ public class BookingRepositoryTest {
         entityManager.persist(makeBooking(null, now.minusDays(2), now.minusDays(1), item1, booker, BookingStatus.WAITING));
         entityManager.persist(makeBooking(null, now.plusDays(1), now.plusDays(2), item2, booker, BookingStatus.WAITING));
 
-        Sort sort = Sort.by("start_date").descending();
-        Pageable pageable = PageRequest.of(0, 20, sort);
-        List<Booking> listBookings = bookingRepository.findFutureByOwner(owner.getId(), LocalDateTime.now(), pageable);
+        Pageable pageable = PageRequest.of(0, 20);
+        List<BookingView> listBookings = bookingRepository.findFutureByOwner(owner.getId(), LocalDateTime.now(), pageable);
 
         assertThat(listBookings)
                 .hasSize(1)
                 .element(0)
-                .hasFieldOrProperty("item");
-        assertThat(listBookings.get(0).getItem())
-                .isInstanceOf(Item.class)
-                .hasFieldOrPropertyWithValue("name", "Итем2");
+                .hasFieldOrPropertyWithValue("itemName", "Итем2");
     }
 
+    @Test
+    public void shouldFindLatestApprovedBookingStartedBefore() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = entityManager.persist(makeUser(null, "Пётр", "ivanov@mail.ru"));
+        User booker = entityManager.persist(makeUser(null, "Иван", "petrov@mail.ru"));
+        Item item = entityManager.persist(makeItem(null, "Итем", "Описание", owner, true));
+        entityManager.persist(makeBooking(null, now.plusDays(1), now.plusDays(2), item, booker, BookingStatus.APPROVED));
+        Booking latest = entityManager.persist(makeBooking(null, now.plusDays(3), now.plusDays(4), item, booker,
+                BookingStatus.APPROVED));
+        entityManager.persist(makeBooking(null, now.plusDays(4), now.plusDays(5), item, booker, BookingStatus.WAITING));
+        entityManager.persist(makeBooking(null, now.plusDays(6), now.plusDays(7), item, booker, BookingStatus.APPROVED));
+
+        Optional<Booking> found = bookingRepository.findFirstByItemAndStatusAndStartBeforeOrderByStartDesc(
+                item, BookingStatus.APPROVED, now.plusDays(5));
+
+        assertThat(found).get().hasFieldOrPropertyWithValue("id", latest.getId());
+        assertThat(bookingRepository.findFirstByItemAndStatusAndStartBeforeOrderByStartDesc(
+                item, BookingStatus.APPROVED, now.plusHours(12))).isEmpty();
+    }
 
+    @Test
+    public void shouldFindLastAndNextApprovedPerItem() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        User owner = entityManager.persist(makeUser(null, "Пётр", "ivanov@mail.ru"));
+        User booker = entityManager.persist(makeUser(null, "Иван", "petrov@mail.ru"));
+        Item item1 = entityManager.persist(makeItem(null, "Итем1", "Описание1", owner, true));
+        Item item2 = entityManager.persist(makeItem(null, "Итем2", "Описание2", owner, true));
+        entityManager.persist(makeBooking(null, now.minusDays(5), now.minusDays(4), item1, booker, BookingStatus.APPROVED));
+        Booking last = entityManager.persist(makeBooking(null, now.minusDays(2), now.minusDays(1), item1, booker,
+                BookingStatus.APPROVED));
+        entityManager.persist(makeBooking(null, now.minusHours(1), now.plusHours(1), item1, booker, BookingStatus.REJECTED));
+        Booking next = entityManager.persist(makeBooking(null, now.plusDays(1), now.plusDays(2), item1, booker,
+                BookingStatus.APPROVED));
+        entityManager.persist(makeBooking(null, now.plusDays(3), now.plusDays(4), item1, booker, BookingStatus.APPROVED));
+        Booking onlyNext = entityManager.persist(makeBooking(null, now.plusDays(2), now.plusDays(3), item2, booker,
+                BookingStatus.APPROVED));
+
+        List<ItemBookingView> found = bookingRepository.findLastAndNextApproved(List.of(item1.getId(), item2.getId()), now);
+
+        assertThat(found).extracting(ItemBookingView::getId)
+                .containsExactly(onlyNext.getId(), next.getId(), last.getId());
+        assertThat(found.get(2))
+                .hasFieldOrPropertyWithValue("itemId", item1.getId())
+                .hasFieldOrPropertyWithValue("bookerId", booker.getId())
+                .hasFieldOrPropertyWithValue("startDate", last.getStart())
+                .hasFieldOrPropertyWithValue("endDate", last.getEnd());
+    }
 }
@@ -11,9 +11,11 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.model.BookingCursor;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.IncorrectEntityParameterException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
@@ -21,6 +23,7 @@ import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -66,13 +69,13 @@ public class BookingServiceImplTest {
         itemDtoFromDB = itemService.addItem(testUser.getId(), itemDto);
 
         bookingShortDto = BookingDtoShort.builder()
-                .start(LocalDateTime.now().plusNanos(1))
-                .end(LocalDateTime.now().plusNanos(2))
+                .start(now().plusSeconds(1))
+                .end(now().plusSeconds(2))
                 .itemId(itemDtoFromDB.getId())
                 .build();
         secondBookingShortDto = BookingDtoShort.builder()
-                .start(LocalDateTime.now().plusHours(3))
-                .end(LocalDateTime.now().plusHours(4))
+                .start(now().plusHours(3))
+                .end(now().plusHours(4))
                 .itemId(itemDtoFromDB.getId())
                 .build();
     }
@@ -154,6 +157,74 @@ public class BookingServiceImplTest {
         checkBookingsAreTheSame(waitingBooking, secondBookingShortDto, secondTestUser, itemDtoFromDB, BookingStatus.WAITING);
     }
 
+    @Test
+    void createOverlappingBookingTest() {
+        BookingDto approvedBooking = bookingService.addBooking(secondTestUser.getId(), secondBookingShortDto);
+        bookingService.approve(testUser.getId(), approvedBooking.getId(), true);
+        BookingDtoShort overlapping = BookingDtoShort.builder()
+                .start(secondBookingShortDto.getStart().plusMinutes(30))
+                .end(secondBookingShortDto.getEnd().plusHours(1))
+                .itemId(itemDtoFromDB.getId())
+                .build();
+        BookingDtoShort adjacent = BookingDtoShort.builder()
+                .start(secondBookingShortDto.getEnd())
+                .end(secondBookingShortDto.getEnd().plusHours(1))
+                .itemId(itemDtoFromDB.getId())
+                .build();
+
+        Assertions.assertThrows(IncorrectEntityParameterException.class,
+                () -> bookingService.addBooking(secondTestUser.getId(), overlapping));
+        assertThat(bookingService.addBooking(secondTestUser.getId(), adjacent).getId(), notNullValue());
+    }
+
+    @Test
+    void approveOverlappingBookingTest() {
+        BookingDto firstBooking = bookingService.addBooking(secondTestUser.getId(), secondBookingShortDto);
+        BookingDto secondBooking = bookingService.addBooking(secondTestUser.getId(), secondBookingShortDto);
+        bookingService.approve(testUser.getId(), firstBooking.getId(), true);
+
+        Assertions.assertThrows(IncorrectEntityParameterException.class,
+                () -> bookingService.approve(testUser.getId(), secondBooking.getId(), true));
+        BookingDto rejected = bookingService.approve(testUser.getId(), secondBooking.getId(), false);
+        assertThat(rejected.getStatus(), equalTo(BookingStatus.REJECTED));
+    }
+
+    @Test
+    void getBookingsByCursorTest() {
+        LocalDateTime start = now().plusDays(1).withNano(0);
+        for (int i = 0; i < 3; i++) {
+            bookingService.addBooking(secondTestUser.getId(), BookingDtoShort.builder()
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .itemId(itemDtoFromDB.getId())
+                    .build());
+        }
+        bookingService.addBooking(secondTestUser.getId(), BookingDtoShort.builder()
+                .start(start.plusDays(1))
+                .end(start.plusDays(1).plusHours(2))
+                .itemId(itemDtoFromDB.getId())
+                .build());
+
+        for (BookingState state : List.of(BookingState.ALL, BookingState.FUTURE, BookingState.WAITING)) {
+            List<BookingDto> firstPage = bookingService.getBooking(state, secondTestUser.getId(), 0, 2);
+            BookingDto last = firstPage.get(1);
+            List<BookingDto> secondPage = bookingService.getBooking(state, secondTestUser.getId(),
+                    new BookingCursor(last.getStart(), last.getId()), 2);
+            List<BookingDto> ownerPage = bookingService.ownerItemsBookingLists(state, testUser.getId(),
+                    new BookingCursor(last.getStart(), last.getId()), 2);
+
+            assertThat(firstPage.get(0).getStart(), equalTo(start.plusDays(2)));
+            assertThat(last.getStart(), equalTo(start.plusDays(1)));
+            assertThat(secondPage.size(), equalTo(2));
+            assertThat(secondPage.get(0).getStart(), equalTo(start.plusDays(1)));
+            assertThat(secondPage.get(0).getId(), lessThan(last.getId()));
+            assertThat(secondPage.get(1).getStart(), equalTo(start));
+            assertThat(ownerPage.get(0).getId(), equalTo(secondPage.get(0).getId()));
+        }
+        assertThat(bookingService.getBooking(BookingState.PAST, secondTestUser.getId(),
+                new BookingCursor(start.plusDays(5), 100L), 2), empty());
+    }
+
     @Test
     void approveBookingWrongOwnerTest() {
         BookingDto bookingDtoFromDB = bookingService.addBooking(secondTestUser.getId(), bookingShortDto);
@@ -177,8 +248,8 @@ public class BookingServiceImplTest {
     @Test
     void getAllBookingsCurrentStateTest() {
         BookingDtoShort bookingDto = BookingDtoShort.builder()
-                .start(LocalDateTime.now().minusHours(1))
-                .end(LocalDateTime.now().plusHours(2))
+                .start(now().minusHours(1))
+                .end(now().plusHours(2))
                 .itemId(itemDtoFromDB.getId())
                 .build();
         List<BookingDtoShort> bookingDtos = List.of(bookingDto);
@@ -195,8 +266,8 @@ public class BookingServiceImplTest {
     @Test
     void getAllBookingsFutureStateTest() {
         BookingDtoShort bookingDto = BookingDtoShort.builder()
-                .start(LocalDateTime.now().plusHours(1))
-                .end(LocalDateTime.now().plusHours(2))
+                .start(now().plusHours(1))
+                .end(now().plusHours(2))
                 .itemId(itemDtoFromDB.getId())
                 .build();
         List<BookingDtoShort> bookingDtos = List.of(bookingDto);
@@ -213,8 +284,8 @@ public class BookingServiceImplTest {
     @Test
     void getAllBookingsPastStateTest() {
         BookingDtoShort bookingDto = BookingDtoShort.builder()
-                .start(LocalDateTime.now().minusHours(2))
-                .end(LocalDateTime.now().minusHours(1))
+                .start(now().minusHours(2))
+                .end(now().minusHours(1))
                 .itemId(itemDtoFromDB.getId())
                 .build();
         List<BookingDtoShort> bookingDtos = List.of(bookingDto);
@@ -232,8 +303,8 @@ public class BookingServiceImplTest {
     @Test
     void getAllOwnerBookingsFutureStateTest() {
         BookingDtoShort bookingDto = BookingDtoShort.builder()
-                .start(LocalDateTime.now().plusHours(1))
-                .end(LocalDateTime.now().plusHours(2))
+                .start(now().plusHours(1))
+                .end(now().plusHours(2))
                 .itemId(itemDtoFromDB.getId())
                 .build();
         List<BookingDtoShort> bookingDtos = List.of(bookingDto);
@@ -251,8 +322,8 @@ public class BookingServiceImplTest {
     @Test
     void getAllOwnerBookingsPastStateTest() {
         BookingDtoShort bookingDto = BookingDtoShort.builder()
-                .start(LocalDateTime.now().minusHours(2))
-                .end(LocalDateTime.now().minusHours(1))
+                .start(now().minusHours(2))
+                .end(now().minusHours(1))
                 .itemId(itemDtoFromDB.getId())
                 .build();
         List<BookingDtoShort> bookingDtos = List.of(bookingDto);
@@ -267,6 +338,11 @@ public class BookingServiceImplTest {
         checkBookingsAreTheSame(pastBooking, bookingDto, secondTestUser, itemDtoFromDB, BookingStatus.APPROVED);
     }
 
+    // база хранит время с точностью до микросекунд
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
     private void checkBookingsAreTheSame(
             BookingDto booking, BookingDtoShort secondBooking, UserDto user, ItemDto item, BookingStatus status) {
         assertThat(booking.getId(), notNullValue());
@@ -7,6 +7,12 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.CountStatements;
+import ru.practicum.shareit.StatementBudget;
+import ru.practicum.shareit.booking.dto.BookingBatchEntryDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
 import ru.practicum.shareit.booking.dto.ItemBookingInfoDto;
@@ -15,6 +21,7 @@ import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.exceptions.IncorrectEntityParameterException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.RequestFailedException;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -23,8 +30,15 @@ import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -38,12 +52,14 @@ import static ru.practicum.shareit.booking.mapper.BookingMapper.toItemBookingInf
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@CountStatements
 public class BookingServiceIntegrationTest {
 
     private final BookingService bookingService;
     private final BookingServiceImpl bookingServicei;
     private final UserService userService;
     private final ItemService itemService;
+    private final PlatformTransactionManager transactionManager;
 
     private final UserDto owner = new UserDto(null, "testUser", "test@email.com");
     private final UserDto booker = new UserDto(null, "testUser2", "test2@email.com");
@@ -80,7 +96,7 @@ public class BookingServiceIntegrationTest {
             "WAITING, 1, 2, true",
             "REJECTED, 1, 2, false"
     })
-    void getAllBookingsByUser_ALL(BookingState status, int start, int end, boolean approve) {
+    void getAllBookingsByUser_ALL(BookingState status, int start, int end, boolean approve, StatementBudget statements) {
         BookingDtoShort booking = BookingDtoShort.builder().itemId(1L)
                 .start(LocalDateTime.now().plusHours(start))
                 .end(LocalDateTime.now().plusHours(end)).build();
@@ -91,7 +107,7 @@ public class BookingServiceIntegrationTest {
         if (!approve) {
             bookingService.approve(bookingDto.getId(), 1L, approve);
         }
-        List<BookingDto> userBookingsList = bookingService.getBooking(status, 2L, 0, 10);
+        List<BookingDto> userBookingsList = statements.expectAtMost(1, () -> bookingService.getBooking(status, 2L, 0, 10));
         assertThat(userBookingsList, hasSize(1));
         assertThat(userBookingsList.get(0).getId(), equalTo(bookingDto.getId()));
     }
@@ -105,7 +121,7 @@ public class BookingServiceIntegrationTest {
             "WAITING, 1, 2, true",
             "REJECTED, 1, 2, false"
     })
-    void getAllBookingsByOwner_ALL(BookingState status, int start, int end, boolean approve) {
+    void getAllBookingsByOwner_ALL(BookingState status, int start, int end, boolean approve, StatementBudget statements) {
         BookingDtoShort booking = BookingDtoShort.builder().itemId(1L)
                 .start(LocalDateTime.now().plusHours(start))
                 .end(LocalDateTime.now().plusHours(end)).build();
@@ -116,11 +132,119 @@ public class BookingServiceIntegrationTest {
         if (!approve) {
             bookingService.approve(bookingDto.getId(), 1L, approve);
         }
-        List<BookingDto> userBookingsList = bookingService.ownerItemsBookingLists(status, 1L, 0, 10);
+        List<BookingDto> userBookingsList = statements.expectAtMost(1,
+                () -> bookingService.ownerItemsBookingLists(status, 1L, 0, 10));
         assertThat(userBookingsList, hasSize(1));
         assertThat(userBookingsList.get(0).getId(), equalTo(bookingDto.getId()));
     }
 
+    @ParameterizedTest
+    @CsvSource(value = {
+            "ALL, 1, 2, true",
+            "CURRENT, -1, 2, true",
+            "PAST, -2, -1, true",
+            "FUTURE, 1, 2, true",
+            "WAITING, 1, 2, true",
+            "REJECTED, 1, 2, false"
+    })
+    void exportBookings_streamsWholeHistoryInOneSelect(BookingState status, int start, int end, boolean approve,
+                                                       StatementBudget statements) {
+        BookingDtoShort booking = BookingDtoShort.builder().itemId(1L)
+                .start(LocalDateTime.now().plusHours(start))
+                .end(LocalDateTime.now().plusHours(end)).build();
+        userService.addUser(owner);
+        UserDto createdBooker = userService.addUser(booker);
+        itemService.addItem(1L, itemDtoToCreate);
+        BookingDto bookingDto = bookingService.addBooking(createdBooker.getId(), booking);
+        if (!approve) {
+            bookingService.approve(bookingDto.getId(), 1L, approve);
+        }
+        List<BookingDto> exported = new ArrayList<>();
+        List<BookingDto> ownerExported = new ArrayList<>();
+
+        statements.expectAtMost(1, () -> {
+            bookingService.exportBookings(status, 2L, exported::add);
+            return exported;
+        });
+        statements.expectAtMost(1, () -> {
+            bookingService.exportOwnerBookings(status, 1L, ownerExported::add);
+            return ownerExported;
+        });
+
+        assertThat(exported, hasSize(1));
+        assertThat(exported.get(0).getId(), equalTo(bookingDto.getId()));
+        assertThat(exported.get(0).getItem().getName(), equalTo(itemDtoToCreate.getName()));
+        assertThat(ownerExported, hasSize(1));
+        assertThat(ownerExported.get(0).getBooker(), equalTo(createdBooker));
+    }
+
+    @Test
+    void getAndApproveBooking_loadItemOwnerAndBookerInOneSelect(StatementBudget statements) {
+        UserDto createdOwner = userService.addUser(owner);
+        UserDto createdBooker = userService.addUser(booker);
+        ItemDto itemDto = itemService.addItem(createdOwner.getId(), itemDtoToCreate);
+        BookingDto created = bookingService.addBooking(createdBooker.getId(), bookingToCreate);
+
+        BookingDto found = statements.expectAtMost(1,
+                () -> bookingService.getBooking(createdBooker.getId(), created.getId()));
+        BookingDto approved = statements.expectAtMost(7,
+                () -> bookingService.approve(createdOwner.getId(), created.getId(), true));
+
+        assertEquals(created.getId(), found.getId());
+        assertEquals(itemDto.getName(), found.getItem().getName());
+        assertEquals(createdBooker, found.getBooker());
+        assertEquals(BookingStatus.APPROVED, approved.getStatus());
+        assertEquals(createdBooker, approved.getBooker());
+    }
+
+    @Test
+    void addBookings_validatesWholeBatchWithConstantStatements(StatementBudget statements) {
+        UserDto createdOwner = userService.addUser(owner);
+        UserDto createdBooker = userService.addUser(booker);
+        ItemDto first = itemService.addItem(createdOwner.getId(), itemDtoToCreate);
+        ItemDto second = itemService.addItem(createdOwner.getId(), itemDtoToCreate);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto existing = bookingService.addBooking(createdBooker.getId(), BookingDtoShort.builder()
+                .itemId(second.getId()).start(start).end(start.plusDays(1)).build());
+        bookingService.approve(createdOwner.getId(), existing.getId(), true);
+        List<BookingBatchEntryDto> batch = List.of(
+                entry(first.getId(), start, start.plusHours(2)),
+                entry(first.getId(), start.plusHours(1), start.plusHours(3)),
+                entry(first.getId(), start.plusHours(3), start.plusHours(4)),
+                entry(second.getId(), start.plusHours(5), start.plusHours(6)),
+                entry(999L, start, start.plusHours(1)),
+                entry(first.getId(), start.plusDays(4), start.plusDays(3)));
+
+        List<BookingBatchResultDto> results = statements.expectAtMost(4,
+                () -> bookingService.addBookings(createdBooker.getId(), batch));
+
+        assertThat(results, hasSize(batch.size()));
+        assertEquals(createdBooker, results.get(0).getBooking().getBooker());
+        assertEquals(BookingStatus.WAITING, results.get(0).getBooking().getStatus());
+        assertEquals("Вещь уже забронирована на это время", results.get(1).getError());
+        assertEquals(createdBooker, results.get(2).getBooking().getBooker());
+        assertEquals("Вещь уже забронирована на это время", results.get(3).getError());
+        assertEquals("Вещи с таким id нет", results.get(4).getError());
+        assertEquals("Неверные даты бронирования", results.get(5).getError());
+        assertThat(bookingService.getBooking(BookingState.ALL, createdBooker.getId(), 0, 10), hasSize(3));
+    }
+
+    @Test
+    void addBookings_booksOnlyAsHeaderUser() {
+        UserDto createdOwner = userService.addUser(owner);
+        ItemDto item = itemService.addItem(createdOwner.getId(), itemDtoToCreate);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingBatchEntryDto> batch = List.of(entry(item.getId(), start, start.plusHours(1)));
+
+        assertEquals("Неверные параметры",
+                bookingService.addBookings(createdOwner.getId(), batch).get(0).getError());
+        assertThrows(NotFoundException.class, () -> bookingService.addBookings(999L, batch));
+    }
+
+    private static BookingBatchEntryDto entry(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return new BookingBatchEntryDto(itemId, start, end);
+    }
+
     @Test
     public void testGetStateFromText() {
         assertEquals(BookingState.ALL, BookingState.getStateFromText("ALL"));
@@ -182,6 +306,59 @@ public class BookingServiceIntegrationTest {
         assertNotEquals(booking.getEnd(), itemBookingInfoDto.getStart());
     }
 
+    @Test
+    void approve_marksAvailabilityOnlyAfterCommit() {
+        UserDto createdOwner = userService.addUser(owner);
+        UserDto createdBooker = userService.addUser(booker);
+        ItemDto item = itemService.addItem(createdOwner.getId(), itemDtoToCreate);
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        BookingDto booking = bookingService.addBooking(createdBooker.getId(), BookingDtoShort.builder()
+                .itemId(item.getId()).start(start).end(start.plusDays(1)).build());
+        LocalDate day = start.toLocalDate();
+        assertTrue(itemService.getAvailability(item.getId(), day, day).get(0).isFree());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookingService.approve(createdOwner.getId(), booking.getId(), true);
+            status.setRollbackOnly();
+        });
+        assertTrue(itemService.getAvailability(item.getId(), day, day).get(0).isFree());
+
+        bookingService.approve(createdOwner.getId(), booking.getId(), true);
+        assertFalse(itemService.getAvailability(item.getId(), day, day).get(0).isFree());
+    }
+
+    @Test
+    void approve_concurrentOverlappingApprovals_secondWaitsAndIsRejected() throws Exception {
+        UserDto createdOwner = userService.addUser(owner);
+        UserDto createdBooker = userService.addUser(booker);
+        ItemDto item = itemService.addItem(createdOwner.getId(), itemDtoToCreate);
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        BookingDtoShort interval = BookingDtoShort.builder().itemId(item.getId()).start(start).end(start.plusDays(1)).build();
+        BookingDto first = bookingService.addBooking(createdBooker.getId(), interval);
+        BookingDto second = bookingService.addBooking(createdBooker.getId(), interval);
+        CountDownLatch firstApproved = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> firstCommit = executor.submit(() -> new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> {
+                        bookingService.approve(createdOwner.getId(), first.getId(), true);
+                        firstApproved.countDown();
+                        try {
+                            Thread.sleep(300);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+            assertTrue(firstApproved.await(10, TimeUnit.SECONDS));
+
+            assertThrows(IncorrectEntityParameterException.class,
+                    () -> bookingService.approve(createdOwner.getId(), second.getId(), true));
+            firstCommit.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void approve_withInvalidOwnerId_shouldThrowNotFoundException() {
         Long ownerId = 3L;
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.item.service.ItemAvailabilityIndex;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemAvailabilityIndexTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 10);
+
+    @InjectMocks
+    private ItemAvailabilityIndex index;
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Test
+    void getSlots_buildsCalendarFromApprovedBookingsOnce() {
+        Booking booking = Booking.builder()
+                .start(DAY.atTime(12, 0))
+                .end(DAY.plusDays(2).atStartOfDay())
+                .build();
+        when(bookingRepository.findByItemIdAndStatus(1L, BookingStatus.APPROVED)).thenReturn(List.of(booking));
+
+        List<AvailabilitySlotDto> slots = index.getSlots(1L, DAY.minusDays(2), DAY.plusDays(3));
+        index.getSlots(1L, DAY, DAY);
+
+        assertEquals(List.of(
+                new AvailabilitySlotDto(DAY.minusDays(2), DAY.minusDays(1), true),
+                new AvailabilitySlotDto(DAY, DAY.plusDays(1), false),
+                new AvailabilitySlotDto(DAY.plusDays(2), DAY.plusDays(3), true)), slots);
+        assertTrue(index.isLoaded(1L));
+        verify(bookingRepository, times(1)).findByItemIdAndStatus(1L, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void markOccupied_updatesLoadedCalendarWithoutDatabase() {
+        when(bookingRepository.findByItemIdAndStatus(1L, BookingStatus.APPROVED)).thenReturn(List.of());
+        index.getSlots(1L, DAY, DAY);
+
+        index.markOccupied(1L, DAY.plusDays(5).atTime(10, 0), DAY.plusDays(5).atTime(11, 0));
+        index.markOccupied(1L, DAY.minusDays(3).atTime(10, 0), DAY.minusDays(2).atTime(11, 0));
+        index.markOccupied(2L, LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+
+        assertEquals(List.of(
+                new AvailabilitySlotDto(DAY.minusDays(4), DAY.minusDays(4), true),
+                new AvailabilitySlotDto(DAY.minusDays(3), DAY.minusDays(2), false),
+                new AvailabilitySlotDto(DAY.minusDays(1), DAY.plusDays(4), true),
+                new AvailabilitySlotDto(DAY.plusDays(5), DAY.plusDays(5), false)),
+                index.getSlots(1L, DAY.minusDays(4), DAY.plusDays(5)));
+        assertFalse(index.isLoaded(2L));
+        verify(bookingRepository, times(1)).findByItemIdAndStatus(anyLong(), any());
+    }
+
+    @Test
+    void getSlots_whenItemMarkedDuringLoad_doesNotCacheStaleCalendar() {
+        Booking booking = Booking.builder()
+                .start(DAY.atTime(10, 0))
+                .end(DAY.atTime(11, 0))
+                .build();
+        when(bookingRepository.findByItemIdAndStatus(1L, BookingStatus.APPROVED))
+                .thenAnswer(invocation -> {
+                    index.markOccupied(1L, booking.getStart(), booking.getEnd());
+                    return List.of();
+                })
+                .thenReturn(List.of(booking));
+
+        index.getSlots(1L, DAY, DAY);
+
+        assertFalse(index.isLoaded(1L));
+        assertEquals(List.of(new AvailabilitySlotDto(DAY, DAY, false)), index.getSlots(1L, DAY, DAY));
+        assertTrue(index.isLoaded(1L));
+        verify(bookingRepository, times(2)).findByItemIdAndStatus(1L, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void getSlots_withBookingCenturiesAhead_staysCompactAndWalksOnlyBookedRanges() {
+        Booking near = Booking.builder()
+                .start(DAY.atStartOfDay())
+                .end(DAY.plusDays(1).atStartOfDay())
+                .build();
+        Booking far = Booking.builder()
+                .start(LocalDate.of(9000, 1, 1).atStartOfDay())
+                .end(LocalDate.of(9000, 1, 3).atStartOfDay())
+                .build();
+        when(bookingRepository.findByItemIdAndStatus(1L, BookingStatus.APPROVED)).thenReturn(List.of(far, near));
+
+        assertEquals(List.of(
+                new AvailabilitySlotDto(DAY.minusDays(1), DAY.minusDays(1), true),
+                new AvailabilitySlotDto(DAY, DAY, false),
+                new AvailabilitySlotDto(DAY.plusDays(1), DAY.plusDays(1), true)),
+                index.getSlots(1L, DAY.minusDays(1), DAY.plusDays(1)));
+        assertEquals(List.of(
+                new AvailabilitySlotDto(LocalDate.of(8999, 12, 31), LocalDate.of(8999, 12, 31), true),
+                new AvailabilitySlotDto(LocalDate.of(9000, 1, 1), LocalDate.of(9000, 1, 2), false),
+                new AvailabilitySlotDto(LocalDate.of(9000, 1, 3), LocalDate.of(9000, 1, 3), true)),
+                index.getSlots(1L, LocalDate.of(8999, 12, 31), LocalDate.of(9000, 1, 3)));
+    }
+}
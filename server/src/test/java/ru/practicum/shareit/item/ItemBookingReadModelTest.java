@@ -0,0 +1,133 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dto.ItemBookingInfoDto;
+import ru.practicum.shareit.booking.model.ItemBookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingInfo;
+import ru.practicum.shareit.item.repository.ItemBookingInfoRepository;
+import ru.practicum.shareit.item.service.ItemBookingReadModel;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemBookingReadModelTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 10, 12, 0);
+
+    @InjectMocks
+    private ItemBookingReadModel readModel;
+    @Mock
+    private ItemBookingInfoRepository itemBookingInfoRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private final User owner = new User(1L, "Владелец", "owner@mail.ru");
+    private final Item drill = new Item(10L, "Дрель", "Ударная", true, null, owner);
+    private final Item saw = new Item(11L, "Пила", "Циркулярная", true, null, owner);
+    private final Item ladder = new Item(12L, "Лестница", "Алюминиевая", true, null, owner);
+
+    @Test
+    void refresh_storesLastAndNextBooking() {
+        LocalDateTime nextStart = LocalDateTime.now().plusDays(1);
+        when(bookingRepository.findLastAndNextApproved(eq(List.of(10L)), any())).thenReturn(List.of(
+                booking(2L, 10L, nextStart),
+                booking(1L, 10L, LocalDateTime.now().minusDays(1))));
+
+        readModel.refresh(10L);
+
+        ArgumentCaptor<ItemBookingInfo> saved = ArgumentCaptor.forClass(ItemBookingInfo.class);
+        verify(itemBookingInfoRepository).save(saved.capture());
+        assertEquals(10L, saved.getValue().getItemId());
+        assertEquals(1L, saved.getValue().getLastBookingId());
+        assertEquals(2L, saved.getValue().getNextBookingId());
+        assertEquals(nextStart, saved.getValue().getNextStart());
+    }
+
+    @Test
+    void refreshStale_recomputesRowsWhoseNextBookingStarted() {
+        when(itemBookingInfoRepository.findByNextStartLessThanEqual(any(), any()))
+                .thenReturn(List.of(new ItemBookingInfo(10L, 1L, 2L, LocalDateTime.now().minusHours(1))));
+        when(bookingRepository.findLastAndNextApproved(eq(List.of(10L)), any()))
+                .thenReturn(List.of(booking(2L, 10L, LocalDateTime.now().minusHours(1))));
+
+        readModel.refreshStale();
+
+        ArgumentCaptor<ItemBookingInfo> saved = ArgumentCaptor.forClass(ItemBookingInfo.class);
+        verify(itemBookingInfoRepository).save(saved.capture());
+        assertEquals(2L, saved.getValue().getLastBookingId());
+        assertNull(saved.getValue().getNextBookingId());
+        assertNull(saved.getValue().getNextStart());
+    }
+
+    @Test
+    void findLastAndNext_readsFreshRowsAndQueriesStaleOnes() {
+        when(itemBookingInfoRepository.findAllById(anyIterable())).thenReturn(List.of(
+                new ItemBookingInfo(10L, 1L, 2L, NOW.plusDays(2)),
+                new ItemBookingInfo(11L, 3L, 4L, NOW.minusHours(1))));
+        when(bookingRepository.findViewsByIdIn(Set.of(1L, 2L))).thenReturn(List.of(
+                booking(2L, 10L, NOW.plusDays(2)),
+                booking(1L, 10L, NOW.minusDays(2))));
+        when(bookingRepository.findLastAndNextApproved(List.of(11L), NOW)).thenReturn(List.of(
+                booking(5L, 11L, NOW.plusDays(1)),
+                booking(4L, 11L, NOW.minusHours(1))));
+
+        Map<Long, List<ItemBookingInfoDto>> result = readModel.findLastAndNext(List.of(drill, saw, ladder), NOW);
+
+        assertEquals(List.of(2L, 1L), ids(result.get(10L)));
+        assertEquals(List.of(5L, 4L), ids(result.get(11L)));
+        assertFalse(result.containsKey(12L));
+    }
+
+    private List<Long> ids(List<ItemBookingInfoDto> bookings) {
+        return bookings.stream().map(ItemBookingInfoDto::getId).collect(toList());
+    }
+
+    private ItemBookingView booking(Long id, Long itemId, LocalDateTime start) {
+        return new ItemBookingView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return 2L;
+            }
+
+            @Override
+            public LocalDateTime getStartDate() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndDate() {
+                return start.plusHours(2);
+            }
+        };
+    }
+}
@@ -6,21 +6,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportLineDto;
 import ru.practicum.shareit.item.dto.OutputItemDto;
+import ru.practicum.shareit.item.model.CommentCursor;
+import ru.practicum.shareit.item.model.ItemSort;
+import ru.practicum.shareit.item.service.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.util.HeaderConstants;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -28,6 +38,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(controllers = ItemController.class)
 @AutoConfigureMockMvc
+@Import(ItemImporter.class)
 public class ItemControllerTest {
     @Autowired
     private ObjectMapper mapper;
@@ -207,6 +218,116 @@ public class ItemControllerTest {
         }
     }
 
+    @Test
+    public void testGetAvailability() throws Exception {
+        LocalDate from = LocalDate.of(2030, 1, 1);
+        LocalDate to = LocalDate.of(2030, 1, 31);
+        given(itemService.getAvailability(1L, from, to)).willReturn(List.of(
+                new AvailabilitySlotDto(from, from.plusDays(4), true),
+                new AvailabilitySlotDto(from.plusDays(5), to, false)));
+
+        mockMvc.perform(get("/items/{id}/availability", 1L)
+                        .header(HeaderConstants.OWNER_ID, 2L)
+                        .param("from", "2030-01-01")
+                        .param("to", "2030-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].from", is("2030-01-01")))
+                .andExpect(jsonPath("$[0].to", is("2030-01-05")))
+                .andExpect(jsonPath("$[0].free", is(true)))
+                .andExpect(jsonPath("$[1].free", is(false)));
+    }
+
+    @Test
+    public void testSearchItemsByRelevance() throws Exception {
+        given(itemService.getItems(2L, "дрель", 0, 10, ItemSort.RELEVANCE)).willReturn(List.of(
+                new ItemDto(1L, "Дрель", "Ударная", true, null)));
+
+        mockMvc.perform(get("/items/search")
+                        .header(HeaderConstants.OWNER_ID, 2L)
+                        .param("text", "дрель")
+                        .param("sort", "RELEVANCE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].name", is("Дрель")));
+    }
+
+    @Test
+    public void testGetComments() throws Exception {
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 10, 0);
+        CommentDto comment = new CommentDto(3L, "Хорошая", null, "Автор", created.minusHours(1));
+        given(itemService.getComments(1L, new CommentCursor(created, 5L), 20)).willReturn(List.of(comment));
+
+        mockMvc.perform(get("/items/1/comments")
+                        .header(HeaderConstants.OWNER_ID, 1L)
+                        .param("cursor", "2030-01-01T10:00:00,5")
+                        .param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(3)))
+                .andExpect(jsonPath("$[0].authorName", is("Автор")));
+        mockMvc.perform(get("/items/1/comments")
+                        .header(HeaderConstants.OWNER_ID, 1L)
+                        .param("cursor", "вчера"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testSuggest() throws Exception {
+        given(itemService.suggest("дре", 5)).willReturn(List.of("Дрель", "Дрезина"));
+
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "дре")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", is("Дрель")))
+                .andExpect(jsonPath("$[1]", is("Дрезина")));
+    }
+
+    @Test
+    public void testImportItems() throws Exception {
+        Map<Integer, ItemDto> parsed = Map.of(
+                1, new ItemDto(null, "Дрель", "Ударная", true, null),
+                4, new ItemDto(null, "Пила", "", true, null));
+        given(itemService.importItems(eq(1L), eq(parsed))).willReturn(List.of(
+                ItemImportLineDto.created(1, 10L),
+                ItemImportLineDto.failed(4, "Описание не может быть пустым")));
+        String body = "{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true}\n"
+                + "{\"name\":\"Молоток\",\n"
+                + "\n"
+                + "{\"name\":\"Пила\",\"description\":\"\",\"available\":true}\n";
+
+        mockMvc.perform(post("/items/import")
+                        .header(HeaderConstants.OWNER_ID, 1L)
+                        .contentType("application/x-ndjson")
+                        .content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.failed", is(2)))
+                .andExpect(jsonPath("$.errors.length()", is(2)))
+                .andExpect(jsonPath("$.errors[0].line", is(2)))
+                .andExpect(jsonPath("$.errors[1].line", is(4)))
+                .andExpect(jsonPath("$.errors[1].error", is("Описание не может быть пустым")));
+    }
+
+    @Test
+    public void testImportItems_tooLongLineIsSkippedAndNextLinesAreRead() throws Exception {
+        Map<Integer, ItemDto> parsed = Map.of(3, new ItemDto(null, "Пила", "Ручная", true, null));
+        given(itemService.importItems(eq(1L), eq(parsed))).willReturn(List.of(ItemImportLineDto.created(3, 10L)));
+        String body = "{\"name\":\"Дрель\",\"description\":\"" + "д".repeat(ItemImporter.MAX_LINE_LENGTH)
+                + "\",\"available\":true}\r\n"
+                + "\r\n"
+                + "{\"name\":\"Пила\",\"description\":\"Ручная\",\"available\":true}";
+
+        mockMvc.perform(post("/items/import")
+                        .header(HeaderConstants.OWNER_ID, 1L)
+                        .contentType("application/x-ndjson")
+                        .content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(1)))
+                .andExpect(jsonPath("$.errors[0].error", is("Строка длиннее " + ItemImporter.MAX_LINE_LENGTH + " символов")));
+    }
+
 //    @Test
 //    void addInvalidComment_shouldReturnStatus400() throws Exception {
 //        CommentDto commentDto = CommentDto.builder().id(1L).text("testText").authorName("testName").build();
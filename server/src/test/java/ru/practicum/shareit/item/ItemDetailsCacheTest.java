@@ -0,0 +1,129 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.ItemBookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.OutputItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemDetailsCache;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemDetailsCacheTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 10, 12, 0);
+
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private CommentRepository commentRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ItemDetailsCache cache;
+
+    private final User owner = new User(1L, "Владелец", "owner@mail.ru");
+    private final User booker = new User(2L, "Арендатор", "booker@mail.ru");
+    private final Item item = new Item(10L, "Дрель", "Ударная", true, null, owner);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ItemDetailsCache(itemRepository, commentRepository, bookingRepository, meterRegistry);
+    }
+
+    @Test
+    void get_loadsOnceAndProjectsBookingsPerViewer() {
+        when(itemRepository.findById(10L)).thenReturn(Optional.of(item));
+        when(commentRepository.findNewestByItemIds(anyCollection(), anyInt())).thenReturn(List.of());
+        when(bookingRepository.findLastAndNextApproved(anyCollection(), any())).thenReturn(List.of(
+                booking(2L, NOW.plusDays(1)),
+                booking(1L, NOW.minusDays(1))));
+
+        OutputItemDto forOwner = cache.get(10L).toOutputItemDto(owner.getId(), NOW);
+        OutputItemDto forBooker = cache.get(10L).toOutputItemDto(booker.getId(), NOW);
+
+        assertEquals(1L, forOwner.getLastBooking().getId());
+        assertEquals(2L, forOwner.getNextBooking().getId());
+        assertNull(forBooker.getLastBooking());
+        assertNull(forBooker.getNextBooking());
+        assertEquals("Дрель", forBooker.getName());
+        verify(itemRepository, times(1)).findById(10L);
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "itemDetails").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(0.5, meterRegistry.get("cache.hit.ratio").tag("cache", "itemDetails").gauge().value());
+    }
+
+    @Test
+    void invalidate_reloadsItemOnNextRead() {
+        when(itemRepository.findById(10L)).thenReturn(Optional.of(item));
+        when(commentRepository.findNewestByItemIds(anyCollection(), anyInt())).thenReturn(List.of());
+        when(bookingRepository.findLastAndNextApproved(anyCollection(), any())).thenReturn(List.of());
+
+        cache.get(10L);
+        cache.invalidate(10L);
+        item.setName("Перфоратор");
+
+        assertEquals("Перфоратор", cache.get(10L).getName());
+        verify(itemRepository, times(2)).findById(10L);
+    }
+
+    @Test
+    void get_missingItem_throwsAndDoesNotCache() {
+        when(itemRepository.findById(10L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> cache.get(10L));
+        assertThrows(NotFoundException.class, () -> cache.get(10L));
+        verify(itemRepository, times(2)).findById(10L);
+    }
+
+    private ItemBookingView booking(Long id, LocalDateTime start) {
+        return new ItemBookingView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return item.getId();
+            }
+
+            @Override
+            public Long getBookerId() {
+                return booker.getId();
+            }
+
+            @Override
+            public LocalDateTime getStartDate() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndDate() {
+                return start.plusHours(2);
+            }
+        };
+    }
+}
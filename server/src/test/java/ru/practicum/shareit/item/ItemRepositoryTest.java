@@ -9,7 +9,11 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentView;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
@@ -17,6 +21,7 @@ import ru.practicum.shareit.user.model.User;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -25,6 +30,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 public class ItemRepositoryTest {
     @Autowired
     ItemRepository itemRepository;
+    @Autowired
+    CommentRepository commentRepository;
 
     @Autowired
     protected TestEntityManager entityManager;
@@ -64,9 +71,9 @@ public class ItemRepositoryTest {
     public void testFindAllItemsByLike_withBlankText_shouldReturnEmptyList() {
         String text = "";
         Pageable page = PageRequest.of(0, 10);
-        List<Item> expectedResult = Collections.emptyList();
+        List<ItemDto> expectedResult = Collections.emptyList();
 
-        List<Item> actualResult = itemRepository.searchItems(text, page);
+        List<ItemDto> actualResult = itemRepository.searchItems(text, page);
 
         assertEquals(expectedResult, actualResult);
     }
@@ -125,17 +132,15 @@ public class ItemRepositoryTest {
         entityManager.persist(item);
         entityManager.flush();
 
-        List<Item> found = itemRepository.findByRequestId(1L);
+        List<ItemDto> found = itemRepository.findByRequestId(1L);
 
         Assertions.assertNotNull(found);
         Assertions.assertEquals(1, found.size());
         Assertions.assertEquals(1L, found.get(0).getId());
         Assertions.assertEquals(item.getName(), found.get(0).getName());
         Assertions.assertEquals(item.getDescription(), found.get(0).getDescription());
-        Assertions.assertTrue(found.get(0).getIsAvailable());
+        Assertions.assertTrue(found.get(0).getAvailable());
         Assertions.assertNotNull(found.get(0).getRequestId());
-        Assertions.assertEquals(user.getName(), found.get(0).getOwner().getName());
-        Assertions.assertEquals(user.getEmail(), found.get(0).getOwner().getEmail());
     }
 
     @Test
@@ -143,17 +148,56 @@ public class ItemRepositoryTest {
         entityManager.persist(item);
         entityManager.flush();
 
-        List<Item> found = itemRepository.searchItems("Какая-то вещь", PageRequest.of(0, 1));
+        List<ItemDto> found = itemRepository.searchItems("Какая-то вещь", PageRequest.of(0, 1));
 
         Assertions.assertNotNull(found);
         Assertions.assertEquals(1, found.size());
         Assertions.assertEquals(1L, found.get(0).getId());
         Assertions.assertEquals(item.getName(), found.get(0).getName());
         Assertions.assertEquals(item.getDescription(), found.get(0).getDescription());
-        Assertions.assertTrue(found.get(0).getIsAvailable());
+        Assertions.assertTrue(found.get(0).getAvailable());
         Assertions.assertNotNull(found.get(0).getRequestId());
-        Assertions.assertEquals(user.getName(), found.get(0).getOwner().getName());
-        Assertions.assertEquals(user.getEmail(), found.get(0).getOwner().getEmail());
     }
 
+    @Test
+    void searchNameFirst() {
+        Item inDescription = entityManager.persist(new Item(null, "Дрель", "Почти как какая-то вещь", true, null, user));
+        Item inName = entityManager.persist(new Item(null, "Какая-то вещь", "Описание", true, null, user));
+        entityManager.persist(new Item(null, "Какая-то вещь", "Недоступна", false, null, user));
+        entityManager.flush();
+
+        List<ItemDto> found = itemRepository.searchItemsNameFirst("КАКАЯ-ТО", PageRequest.of(0, 10));
+
+        Assertions.assertEquals(List.of(inName.getId(), inDescription.getId()),
+                found.stream().map(ItemDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void commentsCountAndNewestComments() {
+        entityManager.persist(item);
+        Item another = entityManager.persist(new Item(null, "Другая вещь", "Описание", true, null, user));
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < 4; i++) {
+            entityManager.persist(new Comment(null, "Комментарий " + i, item, user, now.minusHours(i)));
+        }
+        entityManager.persist(new Comment(null, "Другой", another, user, now.minusDays(1)));
+        entityManager.flush();
+
+        itemRepository.incrementCommentsCount(item.getId());
+        itemRepository.incrementCommentsCount(item.getId());
+        entityManager.clear();
+
+        assertEquals(2L, itemRepository.findById(item.getId()).orElseThrow().getCommentsCount());
+        List<CommentView> newest = commentRepository.findNewestByItemIds(List.of(item.getId(), another.getId()), 2);
+        assertEquals(List.of("Комментарий 0", "Комментарий 1", "Другой"),
+                newest.stream().map(CommentView::getText).collect(Collectors.toList()));
+        assertEquals(user.getName(), newest.get(0).getAuthorName());
+        assertEquals(item.getId(), newest.get(0).getItemId());
+        List<CommentView> firstPage = commentRepository.findPageByItemId(item.getId(), PageRequest.of(0, 3));
+        CommentView last = firstPage.get(2);
+        List<CommentView> secondPage = commentRepository.findPageByItemIdAfter(item.getId(), last.getCreated(),
+                last.getId(), PageRequest.of(0, 3));
+        assertEquals(1, secondPage.size());
+        assertEquals("Комментарий 3", secondPage.get(0).getText());
+    }
 }
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+// Задержка поиска вещей по подстроке при ITEMS доступных вещах: индекс триграмм ItemSearchIndex
+// против запроса с LIKE, на который сервис переходит, пока индекс не построен.
+// Числа только печатаются. В обычный прогон не входит: mvn test -Dtest=ItemSearchBenchmark
+@Slf4j
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext
+public class ItemSearchBenchmark {
+    private static final int ITEMS = 100_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP = 100;
+    private static final int QUERIES = 500;
+    private static final int FLUSH_EVERY = 1_000;
+    private static final List<String> WORDS = List.of("дрель", "пила", "молоток", "отвёртка", "ключ", "лобзик",
+            "перфоратор", "стремянка", "палатка", "велосипед", "самокат", "удочка", "рюкзак", "фонарь", "шуруповёрт",
+            "ударная", "ручная", "аккумуляторная", "складная", "новая", "большая", "туристическая", "садовая");
+    private static final List<String> QUERIES_TEXT = List.of("дрель", "ВЕЛО", "ключ", "ная", "туристическая палатка",
+            "руповёрт", "лобзик", "отсутствует");
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemSearchIndex searchIndex;
+
+    @Test
+    void indexVersusLike() {
+        Random random = new Random(42);
+        prepareItems(random);
+        long began = System.nanoTime();
+        searchIndex.rebuild();
+        long rebuildMillis = (System.nanoTime() - began) / 1_000_000;
+
+        Consumer<String> index = text -> searchIndex.search(text, 0, PAGE_SIZE).orElseThrow();
+        Consumer<String> like = text -> itemRepository.searchItems(text, PageRequest.of(0, PAGE_SIZE));
+
+        measure(index, random, WARMUP);
+        measure(like, random, WARMUP);
+        long[] indexed = measure(index, random, QUERIES);
+        long[] scanned = measure(like, random, QUERIES);
+
+        log.info("Поиск среди {} вещей (индекс построен за {} мс): индекс p50 {} мкс, p99 {} мкс; "
+                        + "LIKE p50 {} мкс, p99 {} мкс",
+                ITEMS, rebuildMillis, percentile(indexed, 50), percentile(indexed, 99),
+                percentile(scanned, 50), percentile(scanned, 99));
+    }
+
+    private void prepareItems(Random random) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.unwrap(Session.class).setJdbcBatchSize(50);
+        entityManager.getTransaction().begin();
+        User owner = new User(null, "Владелец", "search-owner@mail.ru");
+        entityManager.persist(owner);
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = new Item(null, words(random, 2), words(random, 6), true, null,
+                    entityManager.getReference(User.class, owner.getId()));
+            entityManager.persist(item);
+            if ((i + 1) % FLUSH_EVERY == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS.get(random.nextInt(WORDS.size())));
+        }
+        return text.toString();
+    }
+
+    private long[] measure(Consumer<String> search, Random random, int count) {
+        long[] micros = new long[count];
+        for (int i = 0; i < count; i++) {
+            String text = QUERIES_TEXT.get(random.nextInt(QUERIES_TEXT.size()));
+            long began = System.nanoTime();
+            search.accept(text);
+            micros[i] = (System.nanoTime() - began) / 1_000;
+        }
+        return micros;
+    }
+
+    private static long percentile(long[] values, int percent) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+}
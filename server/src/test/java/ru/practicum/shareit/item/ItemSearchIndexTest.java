@@ -0,0 +1,152 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSearchIndexTest {
+    @InjectMocks
+    private ItemSearchIndex index;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Test
+    void search_beforeRebuild_returnsEmptyToFallBackToDatabase() {
+        assertFalse(index.isReady());
+        assertEquals(Optional.empty(), index.search("дрель", 0, 10));
+    }
+
+    @Test
+    void search_findsSubstringInNameOrDescription() {
+        rebuildWith(
+                new Item(1L, "Дрель", "Простая дрель", true, null, null),
+                new Item(2L, "Отвёртка", "Аккумуляторная отвёртка", true, null, null),
+                new Item(3L, "Перфоратор", "Сверлит как дрель", true, null, null));
+
+        assertEquals(List.of(1L, 3L), ids(index.search("ДРЕЛ", 0, 10)));
+        assertEquals(List.of(2L), ids(index.search("аккум", 0, 10)));
+        assertEquals(List.of(2L, 3L), ids(index.search("тор", 0, 10)));
+        assertEquals(List.of(), ids(index.search("лобзик", 0, 10)));
+        assertEquals(List.of(3L), ids(index.search("дрель", 1, 10)));
+        assertEquals(List.of(1L), ids(index.search("дрель", 0, 1)));
+    }
+
+    @Test
+    void search_shorterThanTrigram_returnsEmptyToFallBackToDatabase() {
+        rebuildWith(new Item(1L, "Дрель", "Простая дрель", true, null, null));
+
+        assertEquals(Optional.empty(), index.search("др", 0, 10));
+        assertEquals(Optional.empty(), index.searchByRelevance("др", 0, 10));
+    }
+
+    @Test
+    void search_doesNotMatchAcrossFieldsWithSharedTrigrams() {
+        rebuildWith(new Item(1L, "абвг", "вгд", true, null, null));
+
+        assertEquals(List.of(), ids(index.search("абвгд", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("абвг", 0, 10)));
+    }
+
+    @Test
+    void index_keepsUpdatesAndAvailabilityInSync() {
+        rebuildWith(new Item(1L, "Дрель", "Простая дрель", true, null, null));
+
+        index.index(new Item(1L, "Пила", "Ручная пила", true, null, null));
+        index.index(new Item(2L, "Дрель", "Новая дрель", true, null, null));
+        index.index(new Item(3L, "Дрель", "Сломана", false, null, null));
+
+        assertEquals(List.of(2L), ids(index.search("дрель", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("пила", 0, 10)));
+
+        index.index(new Item(2L, "Дрель", "Новая дрель", false, null, null));
+
+        assertEquals(List.of(), ids(index.search("дрель", 0, 10)));
+    }
+
+    @Test
+    void searchByRelevance_ranksNameHitsTokensAndRecentBookings() {
+        rebuildWith(
+                new Item(1L, "Набор ключей", "Гаечные ключи", true, null, null),
+                new Item(2L, "Ключ разводной", "Для труб", true, null, null),
+                new Item(3L, "Молоток", "С ручкой-ключом", true, null, null),
+                new Item(4L, "Отвёртка", "Ключ не нужен", true, null, null));
+        for (int i = 0; i < 3; i++) {
+            index.recordBooking(4L);
+        }
+
+        assertEquals(List.of(2L, 1L, 4L, 3L), ids(index.searchByRelevance("ключ", 0, 10)));
+        assertEquals(List.of(1L, 4L), ids(index.searchByRelevance("ключ", 1, 2)));
+        assertEquals(List.of(), ids(index.searchByRelevance("ключ", 10, 2)));
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(index.search("ключ", 0, 10)));
+    }
+
+    @Test
+    void refreshRecentBookings_dropsBookingsThatLeftTheWindow() {
+        List<Object[]> counts = new ArrayList<>();
+        counts.add(new Object[]{2L, 5L});
+        when(bookingRepository.countByItemSince(eq(BookingStatus.APPROVED), any())).thenReturn(counts);
+        rebuildWith(
+                new Item(1L, "Ключ разводной", "Для труб", true, null, null),
+                new Item(2L, "Ключ гаечный", "Для гаек", true, null, null));
+
+        assertEquals(List.of(2L, 1L), ids(index.searchByRelevance("ключ", 0, 10)));
+
+        when(bookingRepository.countByItemSince(eq(BookingStatus.APPROVED), any())).thenReturn(List.of());
+        index.refreshRecentBookings();
+
+        assertEquals(List.of(1L, 2L), ids(index.searchByRelevance("ключ", 0, 10)));
+    }
+
+    @Test
+    void suggest_returnsMostFrequentNamesFirstAndFollowsAvailability() {
+        rebuildWith(
+                new Item(1L, "Дрель", "Простая", true, null, null),
+                new Item(2L, "Дрезина", "Ручная", true, null, null),
+                new Item(3L, "дрель", "Ударная", true, null, null),
+                new Item(4L, "Древко", "Для флага", true, null, null),
+                new Item(5L, "Пила", "Ручная", true, null, null));
+
+        assertEquals(Optional.of(List.of("дрель", "Древко", "Дрезина")), index.suggest("ДРЕ", 10));
+        assertEquals(Optional.of(List.of("дрель", "Древко")), index.suggest("дре", 2));
+        assertEquals(Optional.of(List.of()), index.suggest("молоток", 10));
+
+        index.index(new Item(1L, "Дрель", "Простая", false, null, null));
+        index.index(new Item(3L, "Молоток", "Ударный", true, null, null));
+        index.index(new Item(6L, "Дрезина", "Новая", true, null, null));
+
+        assertEquals(Optional.of(List.of("Дрезина", "Древко")), index.suggest("дре", 10));
+        assertEquals(Optional.of(List.of("Молоток")), index.suggest("м", 10));
+    }
+
+    private void rebuildWith(Item... items) {
+        when(itemRepository.findByIsAvailableTrueAndIdGreaterThanOrderById(eq(0L), any()))
+                .thenReturn(List.of(items));
+        index.rebuild();
+        assertTrue(index.isReady());
+    }
+
+    private List<Long> ids(Optional<List<ItemDto>> result) {
+        return result.orElseThrow().stream().map(ItemDto::getId).collect(Collectors.toList());
+    }
+}
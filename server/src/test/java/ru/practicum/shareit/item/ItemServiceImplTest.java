@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -11,7 +13,7 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.ItemBookingInfoDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
@@ -20,22 +22,35 @@ import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.AuthorDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportLineDto;
 import ru.practicum.shareit.item.dto.OutputItemDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentCursor;
+import ru.practicum.shareit.item.model.CommentView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.service.ItemBookingReadModel;
+import ru.practicum.shareit.item.service.ItemDetailsCache;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserPresenceCache;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -55,13 +70,32 @@ public class ItemServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
     @Mock
+    private ItemAvailabilityIndex availabilityIndex;
+    @Mock
+    private ItemSearchIndex searchIndex;
+    @Mock
+    private UserPresenceCache userPresence;
+    @Mock
+    private ItemDetailsCache itemDetailsCache;
+    @Mock
+    private ItemBookingReadModel itemBookingReadModel;
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
     private CommentDto commentDto;
 
+    @BeforeEach
+    void setUp() {
+        ItemDetailsCache realCache = new ItemDetailsCache(itemRepository, commentRepository, bookingRepository,
+                new SimpleMeterRegistry());
+        when(itemDetailsCache.get(anyLong())).thenAnswer(invocation -> realCache.get(invocation.getArgument(0)));
+    }
+
     @Test
     void addItem_whenValidParametersProvided_thenItemAdded() {
         Long ownerId = 1L;
         ItemDto itemDto = new ItemDto(null, "Test Item", "Test Description", true, null);
-        Mockito.when(userRepository.existsById(ownerId)).thenReturn(true);
+        Mockito.when(userPresence.exists(ownerId)).thenReturn(true);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
         Mockito.when(itemRepository.save(Mockito.any(Item.class))).thenReturn(new Item());
 
@@ -108,8 +142,8 @@ public class ItemServiceImplTest {
         Long userId = 2L;
         User owner = new User(1L, "John", "Doe");
         Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(new Item(itemId, "Test Item", "This is a test item", true, null, owner)));
-        Mockito.when(commentRepository.findByItemIn(Mockito.anyList(), Mockito.any(Sort.class))).thenReturn(Collections.emptyList());
-        Mockito.when(bookingRepository.findByItemInAndStatus(Mockito.anyList(), eq(BookingStatus.APPROVED), Mockito.any(Sort.class))).thenReturn(Collections.emptyList());
+        Mockito.when(commentRepository.findNewestByItemIds(Mockito.anyCollection(), Mockito.anyInt())).thenReturn(Collections.emptyList());
+        Mockito.when(bookingRepository.findLastAndNextApproved(Mockito.anyCollection(), Mockito.any(LocalDateTime.class))).thenReturn(Collections.emptyList());
 
         OutputItemDto result = itemService.getItem(itemId, userId);
 
@@ -188,13 +222,14 @@ public class ItemServiceImplTest {
                 new Comment(1L, "Great laptop", item, owner, LocalDateTime.now()),
                 new Comment(2L, "I love it", item, owner, LocalDateTime.now())
         );
-        List<Booking> bookings = List.of(
-                new Booking(1L, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), item, owner, BookingStatus.APPROVED),
-                new Booking(2L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item, owner, BookingStatus.APPROVED)
+        List<ItemBookingInfoDto> bookings = List.of(
+                new ItemBookingInfoDto(2L, owner.getId(), LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)),
+                new ItemBookingInfoDto(1L, owner.getId(), LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1))
         );
         LocalDateTime now = LocalDateTime.now();
 
-        OutputItemDto result = itemService.addBookingAndComment(item, 1L, comments, bookings, now);
+        OutputItemDto result = itemService.addBookingAndComment(item, 1L, CommentMapper.commentDtoList(comments),
+                bookings, now);
 
         assertNotNull(result);
         assertEquals(item.getId(), result.getId());
@@ -280,9 +315,9 @@ public class ItemServiceImplTest {
     public void testFindAllItemsByLike_withBlankText_shouldReturnEmptyList() {
         String text = "";
         Pageable page = PageRequest.of(0, 10);
-        List<Item> expectedResult = Collections.emptyList();
+        List<ItemDto> expectedResult = Collections.emptyList();
 
-        List<Item> actualResult = itemRepository.searchItems(text, page);
+        List<ItemDto> actualResult = itemRepository.searchItems(text, page);
 
         assertEquals(expectedResult, actualResult);
     }
@@ -437,10 +472,148 @@ public class ItemServiceImplTest {
         assertEquals(commentDtoOutput.getText(), commentDtoOutputAfter.getText());
         assertEquals(commentDtoOutput.getAuthorName(), commentDtoOutputAfter.getAuthorName());
         assertEquals(commentDtoOutput.getCreated(), commentDtoOutputAfter.getCreated());
+        Mockito.verify(itemRepository).incrementCommentsCount(1L);
     }
 
+    @Test
+    void getComments_whenCursorGiven_thenContinuesAfterIt() {
+        User author = new User(2L, "Автор", "author@mail.ru");
+        Item item = new Item(1L, "Дрель", "Ударная", true, null, author);
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 10, 0);
+        CommentView comment = commentView(3L, "Хорошая", item, author, created.minusHours(1));
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(commentRepository.findPageByItemIdAfter(eq(1L), eq(created), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(comment));
+
+        List<CommentDto> result = itemService.getComments(1L, new CommentCursor(created, 5L), 10);
+
+        assertEquals(1, result.size());
+        assertEquals(3L, result.get(0).getId());
+        assertEquals("Автор", result.get(0).getAuthorName());
+    }
 
-}
+    @Test
+    void getComments_whenItemNotFound_thenNotFoundException() {
+        when(itemRepository.existsById(1L)).thenReturn(false);
 
+        assertThrows(NotFoundException.class, () -> itemService.getComments(1L, null, 10));
+    }
 
+    @Test
+    void getAvailability_whenItemNotFound_thenNotFoundException() {
+        LocalDate from = LocalDate.now();
+        when(availabilityIndex.isLoaded(1L)).thenReturn(false);
+        when(itemRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.getAvailability(1L, from, from.plusDays(1)));
+        assertThrows(IncorrectEntityParameterException.class,
+                () -> itemService.getAvailability(1L, from, from.minusDays(1)));
+        assertThrows(IncorrectEntityParameterException.class,
+                () -> itemService.getAvailability(1L, LocalDate.MIN, LocalDate.MAX));
+    }
+
+    @Test
+    void getAvailability_whenIndexLoaded_thenNoItemLookup() {
+        LocalDate from = LocalDate.now();
+        when(availabilityIndex.isLoaded(1L)).thenReturn(true);
+        when(availabilityIndex.getSlots(1L, from, from)).thenReturn(List.of());
 
+        assertTrue(itemService.getAvailability(1L, from, from).isEmpty());
+        Mockito.verify(itemRepository, Mockito.never()).existsById(anyLong());
+    }
+
+    @Test
+    void importItems_whenSomeLinesInvalid_thenOnlyValidSavedInOneBatch() {
+        Map<Integer, ItemDto> itemsByLine = new LinkedHashMap<>();
+        itemsByLine.put(1, new ItemDto(null, "Дрель", "Ударная", true, null));
+        itemsByLine.put(2, new ItemDto(null, " ", "Без названия", true, null));
+        itemsByLine.put(3, new ItemDto(null, "Пила", "Ручная", null, null));
+        itemsByLine.put(5, new ItemDto(null, "Молоток", "Слесарный", false, null));
+        when(userPresence.exists(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(new User());
+        when(itemRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            long id = 10;
+            for (Item item : invocation.<Iterable<Item>>getArgument(0)) {
+                item.setId(id++);
+            }
+            return List.of();
+        });
+
+        List<ItemImportLineDto> results = itemService.importItems(1L, itemsByLine);
+
+        assertEquals(List.of(1, 2, 3, 5), results.stream().map(ItemImportLineDto::getLine).collect(Collectors.toList()));
+        assertEquals(10L, results.get(0).getId());
+        assertNotNull(results.get(1).getError());
+        assertNotNull(results.get(2).getError());
+        assertEquals(11L, results.get(3).getId());
+        Mockito.verify(itemRepository, Mockito.times(1)).saveAll(anyCollection());
+        Mockito.verify(itemRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void importItems_checksRequestsOnceAndColumnLengthsPerLine() {
+        Map<Integer, ItemDto> itemsByLine = new LinkedHashMap<>();
+        itemsByLine.put(1, new ItemDto(null, "Дрель", "Ударная", true, 7L));
+        itemsByLine.put(2, new ItemDto(null, "Пила", "Ручная", true, 8L));
+        itemsByLine.put(3, new ItemDto(null, "Д".repeat(256), "Длинное название", true, null));
+        itemsByLine.put(4, new ItemDto(null, "Молоток", "Д".repeat(1001), true, 7L));
+        when(userPresence.exists(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(new User());
+        when(itemRequestRepository.findExistingIds(anyCollection())).thenReturn(List.of(7L));
+
+        List<ItemImportLineDto> results = itemService.importItems(1L, itemsByLine);
+
+        assertNull(results.get(0).getError());
+        assertEquals("Запрос с таким id не найден", results.get(1).getError());
+        assertEquals("Название длиннее 255 символов", results.get(2).getError());
+        assertEquals("Описание длиннее 1000 символов", results.get(3).getError());
+        Mockito.verify(itemRequestRepository, Mockito.times(1)).findExistingIds(anyCollection());
+    }
+
+    @Test
+    void importItems_whenOwnerNotFound_thenNotFoundException() {
+        when(userPresence.exists(1L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> itemService.importItems(1L, Map.of()));
+        Mockito.verify(itemRepository, Mockito.never()).saveAll(anyCollection());
+    }
+
+    private CommentView commentView(Long id, String text, Item item, User author, LocalDateTime created) {
+        return new CommentView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getText() {
+                return text;
+            }
+
+            @Override
+            public LocalDateTime getCreated() {
+                return created;
+            }
+
+            @Override
+            public Long getItemId() {
+                return item.getId();
+            }
+
+            @Override
+            public Long getAuthorId() {
+                return author.getId();
+            }
+
+            @Override
+            public String getAuthorName() {
+                return author.getName();
+            }
+
+            @Override
+            public String getAuthorEmail() {
+                return author.getEmail();
+            }
+        };
+    }
+}
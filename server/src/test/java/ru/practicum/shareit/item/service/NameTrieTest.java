@@ -0,0 +1,62 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NameTrieTest {
+
+    @Test
+    void complete_equalWeights_expandsOnlyPathsToReturnedNames() {
+        NameTrie trie = new NameTrie();
+        for (int i = 0; i < 50_000; i++) {
+            trie.add(String.format("Дрель %05d", i));
+        }
+
+        List<String> names = new ArrayList<>();
+        int expanded = trie.complete("дрель", 10, names);
+
+        assertEquals(List.of("Дрель 00000", "Дрель 00001", "Дрель 00002", "Дрель 00003", "Дрель 00004",
+                "Дрель 00005", "Дрель 00006", "Дрель 00007", "Дрель 00008", "Дрель 00009"), names);
+        // не больше длины оставшейся части названия на каждую подсказку, а не всё поддерево
+        assertTrue(expanded <= 10 * " 00000".length() + 1, "expanded " + expanded);
+    }
+
+    @Test
+    void complete_prefersHeavierNamesThenAlphabet() {
+        NameTrie trie = new NameTrie();
+        trie.add("Дрезина");
+        trie.add("Древко");
+        trie.add("Дрель");
+        trie.add("дрель");
+        trie.add("Дре");
+
+        assertEquals(List.of("дрель", "Дре", "Древко", "Дрезина"), trie.complete("др", 10));
+
+        trie.remove("Дрель");
+        trie.remove("дрель");
+
+        assertEquals(List.of("Дре", "Древко", "Дрезина"), trie.complete("др", 10));
+    }
+
+    @Test
+    void complete_afterRemovingOneCasing_showsRemainingCasing() {
+        NameTrie trie = new NameTrie();
+        trie.add("Дрель");
+        trie.add("дрель");
+        trie.add("ДРЕЛЬ");
+        trie.add("ДРЕЛЬ");
+
+        assertEquals(List.of("ДРЕЛЬ"), trie.complete("др", 10));
+
+        trie.remove("ДРЕЛЬ");
+        trie.remove("ДРЕЛЬ");
+        trie.remove("дрель");
+
+        assertEquals(List.of("Дрель"), trie.complete("др", 10));
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.HeaderConstants;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "db.name=test")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class MetricsTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void ownerBookings_recordServiceTimerByStateAndJdbcBreakdown() throws Exception {
+        UserDto owner = userService.addUser(new UserDto(null, "Владелец", "owner@mail.ru"));
+
+        mvc.perform(get("/bookings/owner")
+                        .param("state", "CURRENT")
+                        .header(HeaderConstants.OWNER_ID, owner.getId()))
+                .andExpect(status().isOk());
+
+        Timer service = meterRegistry.get("shareit.service.time")
+                .tag("service", "BookingServiceImpl")
+                .tag("method", "ownerItemsBookingLists")
+                .tag("state", "CURRENT")
+                .timer();
+        assertThat(service.count()).isEqualTo(1);
+        Timer total = meterRegistry.get("shareit.http.time")
+                .tag("uri", "/bookings/owner").tag("phase", "total").timer();
+        Timer jdbc = meterRegistry.get("shareit.http.time")
+                .tag("uri", "/bookings/owner").tag("phase", "jdbc").timer();
+        assertThat(jdbc.totalTime(TimeUnit.NANOSECONDS)).isPositive()
+                .isLessThanOrEqualTo(total.totalTime(TimeUnit.NANOSECONDS));
+        assertThat(meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "BookingRepository").timers()).isNotEmpty();
+    }
+
+    @Test
+    void prometheusEndpointExportsHistograms() throws Exception {
+        UserDto user = userService.addUser(new UserDto(null, "Пользователь", "user@mail.ru"));
+        mvc.perform(get("/bookings").header(HeaderConstants.OWNER_ID, user.getId()))
+                .andExpect(status().isOk());
+
+        String body = mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).contains("shareit_service_time_seconds_bucket")
+                .contains("state=\"ALL\"")
+                .contains("shareit_http_time_seconds_bucket")
+                .contains("spring_data_repository_invocations_seconds_bucket");
+    }
+}
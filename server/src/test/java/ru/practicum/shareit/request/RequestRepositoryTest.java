@@ -6,9 +6,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestView;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 
@@ -38,7 +38,7 @@ public class RequestRepositoryTest {
             null,
             "Запрос",
             user,
-            LocalDateTime.now());
+            LocalDateTime.now().withNano(0));
 
     private final ItemRequest anotherRequest = new ItemRequest(
             null,
@@ -88,11 +88,12 @@ public class RequestRepositoryTest {
         entityManager.flush();
         entityManager.persist(user);
 
-        Page<ItemRequest> requests = requestRepository
+        List<ItemRequestView> requests = requestRepository
                 .findAllByRequestorIdNot(user.getId(), PageRequest.of(0, 1));
 
-        Assertions.assertEquals(1, requests.getTotalPages());
-        Assertions.assertEquals(1L, requests.getTotalElements());
+        Assertions.assertEquals(1, requests.size());
+        Assertions.assertEquals(anotherRequest.getId(), requests.get(0).getId());
+        Assertions.assertEquals(anotherUser.getName(), requests.get(0).getRequestorName());
     }
 
     @Test
@@ -101,13 +102,13 @@ public class RequestRepositoryTest {
         entityManager.flush();
         entityManager.persist(user);
 
-        List<ItemRequest> requests = requestRepository.findByRequestorOrderByCreated(user);
+        List<ItemRequestView> requests = requestRepository.findByRequestorOrderByCreated(user.getId());
 
         Assertions.assertEquals(1, requests.size());
         Assertions.assertEquals(request.getId(), requests.get(0).getId());
         Assertions.assertEquals(request.getDescription(), requests.get(0).getDescription());
         Assertions.assertEquals(request.getCreated(), requests.get(0).getCreated());
-        Assertions.assertEquals(user, requests.get(0).getRequestor());
+        Assertions.assertEquals(user.getId(), requests.get(0).getRequestorId());
     }
 
 }
@@ -7,21 +7,30 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.CountStatements;
+import ru.practicum.shareit.StatementBudget;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 
 @SpringBootTest(
         properties = "db.name=test",
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@CountStatements
 public class RequestServiceIntegTest {
     private final ItemRequestService requestService;
     private final UserService userService;
+    private final ItemService itemService;
 
     @BeforeEach
 
@@ -39,6 +48,31 @@ public class RequestServiceIntegTest {
         Assertions.assertEquals(newItemRequest.getDescription(), itemRequest.getDescription());
     }
 
+    @Test
+    public void requestListsRunConstantNumberOfStatements(StatementBudget statements) {
+        UserDto requestor = userService.addUser(new UserDto(null, "Оля", "olya@email.ru"));
+        UserDto owner = userService.addUser(new UserDto(null, "Петя", "petya@email.ru"));
+        for (int i = 0; i < 3; i++) {
+            ItemRequestDto request = requestService.create(requestor.getId(),
+                    new ItemRequestDto(null, "Запрос " + i, null, LocalDateTime.now(), null));
+            itemService.addItem(owner.getId(), ItemDto.builder().name("Вещь " + i).description("Описание")
+                    .available(true).requestId(request.getId()).build());
+        }
+
+        List<ItemRequestDto> own = statements.expectAtMost(2,
+                () -> requestService.getAllUserRequest(requestor.getId()));
+        List<ItemRequestDto> others = statements.expectAtMost(2,
+                () -> requestService.getAllRequest(owner.getId(), 0, 10));
+        ItemRequestDto single = statements.expectAtMost(2,
+                () -> requestService.getById(owner.getId(), own.get(0).getId()));
+
+        Assertions.assertEquals(3, own.size());
+        Assertions.assertTrue(own.stream().allMatch(request -> request.getItems().size() == 1));
+        Assertions.assertTrue(others.size() >= 3);
+        Assertions.assertEquals(1, single.getItems().size());
+        Assertions.assertEquals("Оля", single.getRequestor().getName());
+    }
+
     private void createRequestor() {
         UserDto userDto = new UserDto();
         userDto.setEmail("ttt@email.ru");
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,21 +10,21 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestView;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserPresenceCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -41,6 +42,7 @@ public class RequestServiceUnitTest {
     ItemRequestRepository mockItemRequestRepository = Mockito.mock(ItemRequestRepository.class);
     UserRepository mockUserRepository = Mockito.mock(UserRepository.class);
     ItemRepository mockItemRepository = Mockito.mock(ItemRepository.class);
+    UserPresenceCache userPresence = Mockito.spy(new UserPresenceCache(mockUserRepository, new SimpleMeterRegistry(), 600_000));
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
     private User user;
@@ -48,7 +50,8 @@ public class RequestServiceUnitTest {
     private ItemRequest itemRequest;
     private Item item;
 
-    private final ItemRequestService requestService = new ItemRequestServiceImpl(mockItemRepository, mockItemRequestRepository, mockUserRepository);
+    private final ItemRequestService requestService = new ItemRequestServiceImpl(mockItemRepository, mockItemRequestRepository, mockUserRepository,
+            userPresence);
 
     @BeforeEach
     void start() {
@@ -81,8 +84,8 @@ public class RequestServiceUnitTest {
 
     @Test
     void getRequestsInformationEmpty() {
-        when(mockUserRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(mockUserRepository.existsById(anyLong()))
+                .thenReturn(true);
         List<ItemRequestDto> requestDtoList = itemRequestService.getAllUserRequest(user.getId());
         assertEquals(0, requestDtoList.size());
     }
@@ -119,8 +122,8 @@ public class RequestServiceUnitTest {
         User requestor = new User(1L, "eee@email.ru", "Eva");
 
         when(mockUserRepository.existsById(1L)).thenReturn(true);
-        ItemRequest request = new ItemRequest(1L, "костюм клоуна", requestor, LocalDateTime.now());
-        when(mockItemRequestRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(request));
+        ItemRequestView request = view(1L, "костюм клоуна", requestor);
+        when(mockItemRequestRepository.findViewById(Mockito.anyLong())).thenReturn(Optional.of(request));
         when(mockItemRepository.findByRequestId(Mockito.anyLong())).thenReturn(new ArrayList<>());
         ItemRequestDto itemRequestDto = requestService.getById(1, 1);
 
@@ -137,15 +140,10 @@ public class RequestServiceUnitTest {
         user.setId(userId);
         when(mockUserRepository.existsById(userId)).thenReturn(true);
 
-        List<ItemRequest> itemRequests = new ArrayList<>();
-        ItemRequest itemRequest = new ItemRequest();
-        itemRequest.setId(1L);
         User requestor = new User();
         requestor.setId(2L);
-        itemRequest.setRequestor(requestor);
-        itemRequests.add(itemRequest);
-        when(mockItemRequestRepository.findAllByRequestorIdNot(userId, PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "created"))))
-                .thenReturn(new PageImpl<>(itemRequests));
+        when(mockItemRequestRepository.findAllByRequestorIdNot(userId, PageRequest.of(from / size, size)))
+                .thenReturn(List.of(view(1L, null, requestor)));
 
         List<ItemRequestDto> expectedItemRequestDtoList = new ArrayList<>();
         ItemRequestDto itemRequestDto = new ItemRequestDto();
@@ -169,6 +167,37 @@ public class RequestServiceUnitTest {
         assertThrows(NotFoundException.class, () -> itemRequestService.getAllUserRequest(userId));
     }
 
+    private ItemRequestView view(Long id, String description, User requestor) {
+        return new ItemRequestView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public LocalDateTime getCreated() {
+                return null;
+            }
+
+            @Override
+            public Long getRequestorId() {
+                return requestor.getId();
+            }
+
+            @Override
+            public String getRequestorName() {
+                return requestor.getName();
+            }
+
+            @Override
+            public String getRequestorEmail() {
+                return requestor.getEmail();
+            }
+        };
+    }
 }
-
-
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.user.service.UserService;
@@ -49,6 +50,20 @@ public class UserControllerWebTest {
     }
 
 
+    @Test
+    public void addUser_withTakenEmail_returnsConflict() throws Exception {
+        when(userService.addUser(any()))
+                .thenThrow(new DataIntegrityViolationException("uq_user_email"));
+
+        mockMvc.perform(post(BASE_PATH_USERS)
+                        .content(mapper.writeValueAsString(userDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Данные противоречат уже сохранённым")));
+    }
+
     @Test
     public void shouldSuccessGetUsers() throws Exception {
         when(userService.getUsersList()).thenReturn(List.of(userDto));
@@ -0,0 +1,148 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserPresenceCache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserPresenceCacheTest {
+    @Mock
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private UserPresenceCache userPresence;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userPresence = new UserPresenceCache(userRepository, meterRegistry, 600_000);
+    }
+
+    @Test
+    void exists_beforeWarmUp_checksDatabaseOnceAndCachesPositives() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(2L)).thenReturn(false);
+
+        assertTrue(userPresence.exists(1L));
+        assertTrue(userPresence.exists(1L));
+        assertFalse(userPresence.exists(2L));
+        assertFalse(userPresence.exists(2L));
+
+        verify(userRepository, times(1)).existsById(1L);
+        verify(userRepository, times(2)).existsById(2L);
+        assertEquals(1, lookups("cache_hit"));
+        assertEquals(3, lookups("miss"));
+    }
+
+    @Test
+    void exists_afterWarmUp_answersWithoutDatabase() {
+        when(userRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(1L, 2L));
+        userPresence.warmUp();
+
+        assertTrue(userPresence.exists(1L));
+        assertTrue(userPresence.exists(2L));
+        for (long id = 100; id < 200; id++) {
+            userPresence.exists(id);
+        }
+
+        assertEquals(2, lookups("cache_hit"));
+        assertTrue(lookups("bloom_negative") > 90);
+        verify(userRepository, never()).existsById(1L);
+    }
+
+    @Test
+    void addedAndRemoved_keepCacheInSyncWithUserService() {
+        when(userRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of());
+        userPresence.warmUp();
+
+        userPresence.added(5L);
+        assertTrue(userPresence.exists(5L));
+
+        userPresence.removed(5L);
+        assertFalse(userPresence.exists(5L));
+        verify(userRepository).existsById(5L);
+    }
+
+    @Test
+    void added_insideTransaction_becomesKnownOnlyAfterCommit() {
+        when(userRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of());
+        userPresence.warmUp();
+
+        TransactionSynchronizationManager.initSynchronization();
+        userPresence.added(5L);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        userPresence.added(6L);
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertFalse(userPresence.exists(5L));
+        assertTrue(userPresence.exists(6L));
+        verify(userRepository).existsById(5L);
+        verify(userRepository, never()).existsById(6L);
+    }
+
+    @Test
+    void resync_picksUpUsersCreatedElsewhere() {
+        when(userRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(1L)).thenReturn(List.of(1L, 7L));
+        userPresence.warmUp();
+        assertFalse(userPresence.exists(7L));
+
+        userPresence.resync();
+
+        assertTrue(userPresence.exists(7L));
+        verify(userRepository, never()).existsById(7L);
+    }
+
+    @Test
+    void exists_afterTrustPeriod_checksBloomNegativesInDatabase() {
+        userPresence = new UserPresenceCache(userRepository, meterRegistry, 0);
+        when(userRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(1L));
+        when(userRepository.existsById(7L)).thenReturn(true);
+        userPresence.warmUp();
+
+        assertTrue(userPresence.exists(7L));
+        verify(userRepository).existsById(7L);
+        assertEquals(0, lookups("bloom_negative"));
+    }
+
+    @Test
+    void removed_winsOverLookupThatReadTheUserBeforeDeletion() {
+        when(userRepository.existsById(5L)).thenReturn(true, false);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(userPresence.exists(5L));
+        List<TransactionSynchronization> lookup = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        // удаление зафиксировано раньше транзакции, которая прочитала пользователя
+        userPresence.removed(5L);
+        TransactionSynchronizationUtils.invokeAfterCommit(lookup);
+
+        assertFalse(userPresence.exists(5L));
+        verify(userRepository, times(2)).existsById(5L);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("shareit.users.presence.lookups").tag("result", result).counter().count();
+    }
+}
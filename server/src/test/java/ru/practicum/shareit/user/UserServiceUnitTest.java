@@ -7,9 +7,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.service.ItemDetailsCache;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserPresenceCache;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import java.util.List;
@@ -31,6 +33,10 @@ public class UserServiceUnitTest {
     private UserServiceImpl userService;
     @Mock
     private UserRepository repository;
+    @Mock
+    private UserPresenceCache userPresence;
+    @Mock
+    private ItemDetailsCache itemDetailsCache;
 
     private final User user = new User(1L, "testUser", "test@email.com");
     private final UserDto userDto = new UserDto(1L, "testUser", "test@email.com");